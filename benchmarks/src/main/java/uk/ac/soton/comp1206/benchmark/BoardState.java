@@ -0,0 +1,91 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.util.Random;
+
+/**
+ * A grid of a given size with a given fraction of its blocks filled, plus a fixed sequence of pieces and positions to
+ * try on it. The same seed is used every time, so each fork measures the same boards.
+ */
+@State(Scope.Thread)
+public class BoardState {
+
+    /**
+     * The number of columns and rows of the board
+     */
+    @Param({"5", "10", "64"})
+    public int size;
+
+    /**
+     * The fraction of blocks filled before measuring
+     */
+    @Param({"0.0", "0.5", "0.9"})
+    public double fill;
+
+    /**
+     * The number of pieces and positions in the sequence. A power of two, so the next one can be found with a mask.
+     */
+    static final int MOVES = 1024;
+
+    /**
+     * The grid being measured
+     */
+    public Grid grid;
+
+    /**
+     * The pieces to try
+     */
+    public GamePiece[] pieces;
+
+    /**
+     * The x coordinate to try each piece at
+     */
+    public int[] xs;
+
+    /**
+     * The y coordinate to try each piece at
+     */
+    public int[] ys;
+
+    /**
+     * The position in the sequence
+     */
+    private int move;
+
+    /**
+     * Fill the grid and create the sequence of moves
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1206);
+        grid = new Grid(size, size);
+        for(var y = 0; y < size; y++) {
+            for(var x = 0; x < size; x++) {
+                if(random.nextDouble() < fill) grid.set(x, y, 1 + random.nextInt(14));
+            }
+        }
+        pieces = new GamePiece[MOVES];
+        xs = new int[MOVES];
+        ys = new int[MOVES];
+        for(var i = 0; i < MOVES; i++) {
+            pieces[i] = GamePiece.createPiece(random.nextInt(GamePiece.PIECES), random.nextInt(4), random);
+            xs[i] = random.nextInt(size);
+            ys[i] = random.nextInt(size);
+        }
+    }
+
+    /**
+     * Move on to the next position in the sequence
+     * @return the index of the move
+     */
+    public int next() {
+        move = (move + 1) & (MOVES - 1);
+        return move;
+    }
+}
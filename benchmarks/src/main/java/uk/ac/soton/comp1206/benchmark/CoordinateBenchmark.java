@@ -0,0 +1,104 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.component.GameBlockCoordinate;
+import uk.ac.soton.comp1206.game.CellSet;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hashing GameBlockCoordinates, and collecting the blocks of a cleared row and column into a HashSet, as the
+ * cleared blocks used to be reported, or into the reusable CellSet that replaced it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CoordinateBenchmark {
+
+    /**
+     * The number of columns and rows of the board
+     */
+    @Param({"5", "10", "64"})
+    public int size;
+
+    /**
+     * Every block on the board
+     */
+    private GameBlockCoordinate[] coordinates;
+
+    /**
+     * The reusable set of cleared blocks
+     */
+    private CellSet cleared;
+
+    /**
+     * The next block to hash
+     */
+    private int next;
+
+    /**
+     * Create the blocks of the board
+     */
+    @Setup
+    public void setup() {
+        cleared = new CellSet(size, size);
+        coordinates = new GameBlockCoordinate[size * size];
+        for(var y = 0; y < size; y++) {
+            for(var x = 0; x < size; x++) {
+                coordinates[x + y * size] = new GameBlockCoordinate(x, y);
+            }
+        }
+    }
+
+    /**
+     * Hash a coordinate
+     * @return the hash
+     */
+    @Benchmark
+    public int coordinateHashCode() {
+        next = next == coordinates.length - 1 ? 0 : next + 1;
+        return coordinates[next].hashCode();
+    }
+
+    /**
+     * Collect the blocks of the top row and left column, as when both are cleared at once
+     * @return the blocks
+     */
+    @Benchmark
+    public HashSet<GameBlockCoordinate> collectClearedLines() {
+        HashSet<GameBlockCoordinate> blocks = new HashSet<>();
+        for(var i = 0; i < size; i++) {
+            blocks.add(new GameBlockCoordinate(i, 0));
+            blocks.add(new GameBlockCoordinate(0, i));
+        }
+        return blocks;
+    }
+
+    /**
+     * Collect the blocks of the top row and left column into the reusable CellSet
+     * @return the blocks
+     */
+    @Benchmark
+    public CellSet collectClearedLinesCellSet() {
+        cleared.clear();
+        for(var i = 0; i < size; i++) {
+            cleared.add(i, 0);
+            cleared.add(0, i);
+        }
+        return cleared;
+    }
+}
@@ -0,0 +1,107 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GameCore;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the work done after each piece is played. Game.afterPiece delegates to GameCore.clearLines, which is
+ * measured here on a headless core so no sounds are played.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    /**
+     * A core playing on the benchmark board, with a single block played in the top left corner so the top row and
+     * left column are the lines to be checked
+     */
+    @State(Scope.Thread)
+    public static class CoreState {
+
+        /**
+         * The core being measured
+         */
+        public GameCore core;
+
+        /**
+         * The board the core plays on
+         */
+        public Board board;
+
+        /**
+         * Create the core on the benchmark board
+         * @param boardState the board
+         */
+        @Setup
+        public void setup(BoardState boardState) {
+            board = boardState.grid.getBoard();
+            core = new GameCore(board, 1206);
+            core.setMoveLog(null);
+            //Play a Dot at the top left so the touched lines are row 0 and column 0
+            board.set(0, 0, 0);
+            board.playPiece(GamePiece.createPiece(0, 0, 1), 0, 0);
+        }
+
+        /**
+         * Fill the top row again, ready to be cleared
+         */
+        public void fillTopRow() {
+            for(var x = 0; x < board.getCols(); x++) {
+                if(board.get(x, 0) == 0) board.set(x, 0, 1);
+            }
+        }
+    }
+
+    /**
+     * Look for completed lines after a piece that did not complete any
+     * @param state the core
+     * @return the number of lines cleared
+     */
+    @Benchmark
+    public int afterPieceNoLines(CoreState state) {
+        //Make sure the top row is not full, without changing the board between calls
+        if(state.board.isRowFull(0)) state.board.set(1 % state.board.getCols(), 0, 0);
+        return state.core.clearLines();
+    }
+
+    /**
+     * Fill the top row and clear it. Compare with fillTopRow for the cost of the fill alone.
+     * @param state the core
+     * @return the number of lines cleared
+     */
+    @Benchmark
+    public int afterPieceClearingLine(CoreState state) {
+        state.fillTopRow();
+        return state.core.clearLines();
+    }
+
+    /**
+     * Fill the top row and empty it again block by block, the baseline for afterPieceClearingLine
+     * @param state the core
+     * @return the value of the last block
+     */
+    @Benchmark
+    public int fillTopRow(CoreState state) {
+        state.fillTopRow();
+        for(var x = 0; x < state.board.getCols(); x++) {
+            state.board.set(x, 0, 0);
+        }
+        return state.board.get(0, 0);
+    }
+}
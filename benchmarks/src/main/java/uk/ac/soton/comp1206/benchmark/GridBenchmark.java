@@ -0,0 +1,58 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.PieceShape;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures checking and playing pieces on a Grid, across board sizes and fills.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+    /**
+     * Check whether a piece fits at a position
+     * @param state the board and moves
+     * @return whether it fits
+     */
+    @Benchmark
+    public boolean canPlayPiece(BoardState state) {
+        int move = state.next();
+        return state.grid.canPlayPiece(state.pieces[move], state.xs[move], state.ys[move]);
+    }
+
+    /**
+     * Play a piece where it fits, then empty its blocks again so the board keeps the same fill. Moves that do not fit
+     * only pay for the check.
+     * @param state the board and moves
+     * @return whether the piece was played
+     */
+    @Benchmark
+    public boolean playPiece(BoardState state) {
+        int move = state.next();
+        Grid grid = state.grid;
+        GamePiece piece = state.pieces[move];
+        int x = state.xs[move];
+        int y = state.ys[move];
+        if(!grid.canPlayPiece(piece, x, y)) return false;
+        grid.playPiece(piece, x, y);
+        PieceShape shape = piece.getShape();
+        for(var cell = 0; cell < shape.getCellCount(); cell++) {
+            grid.set(x - 1 + shape.getCellX(cell), y - 1 + shape.getCellY(cell), 0);
+        }
+        return true;
+    }
+}
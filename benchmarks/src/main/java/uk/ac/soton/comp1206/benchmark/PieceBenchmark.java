@@ -0,0 +1,72 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating and rotating pieces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceBenchmark {
+
+    /**
+     * The generator pieces are picked with
+     */
+    private final Random random = new Random(1206);
+
+    /**
+     * A piece to rotate
+     */
+    private final GamePiece piece = GamePiece.createPiece(5, 0, 1);
+
+    /**
+     * The next piece number to create
+     */
+    private int next;
+
+    /**
+     * Create a piece, cycling through every piece number
+     * @return the piece
+     */
+    @Benchmark
+    public GamePiece createPiece() {
+        next = next == GamePiece.PIECES - 1 ? 0 : next + 1;
+        return GamePiece.createPiece(next, next & 3, random);
+    }
+
+    /**
+     * Rotate a piece a quarter turn
+     * @return the piece
+     */
+    @Benchmark
+    public GamePiece rotate() {
+        piece.rotate();
+        return piece;
+    }
+
+    /**
+     * Rotate a piece a quarter turn and build its block grid, as the piece boards used to
+     * @return the blocks
+     */
+    @Benchmark
+    public int[][] rotateAndGetBlocks() {
+        piece.rotate();
+        return piece.getBlocks();
+    }
+}
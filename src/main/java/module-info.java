@@ -16,4 +16,7 @@ module uk.ac.soton.comp1206 {
     exports uk.ac.soton.comp1206.event;
     exports uk.ac.soton.comp1206.component;
     exports uk.ac.soton.comp1206.game;
+    exports uk.ac.soton.comp1206.simulation;
+    exports uk.ac.soton.comp1206.timer;
+    exports uk.ac.soton.comp1206.scores;
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import uk.ac.soton.comp1206.scores.ScoreStore;
+import uk.ac.soton.comp1206.timer.TimerWheel;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
 /**
@@ -67,6 +69,8 @@ public class App extends Application {
      */
     public void shutdown() {
         logger.info("Shutting down");
+        TimerWheel.shutdownShared();
+        ScoreStore.local().close();
         System.exit(0);
     }
 
@@ -0,0 +1,235 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * Pre-rendered images of every kind of block at one size: the empty block, each of the coloured blocks, and the hover
+ * and centre circle overlays. Painting a block is then a single drawImage rather than clearing, filling polygons and
+ * working out colours every time.
+ *
+ * Images are rendered at screen resolution, taking the GamePane's scale into account, and shared by every block of
+ * the same size. Changing the scale throws every cached set away, and blocks pick up new ones the next time they
+ * paint. Must only be used on the JavaFX thread.
+ */
+public final class BlockSprites {
+
+    /**
+     * Logger to keep track of events occurring
+     */
+    private static final Logger logger = LogManager.getLogger(BlockSprites.class);
+
+    /**
+     * The cached sets of images, one for each block size
+     */
+    private static final HashMap<Size, BlockSprites> cache = new HashMap<>();
+
+    /**
+     * The scale blocks are displayed at
+     */
+    private static double scale = 1;
+
+    /**
+     * Increased each time the cache is thrown away, so blocks know to fetch new images
+     */
+    private static int generation = 0;
+
+    /**
+     * The generation of the cache this set belongs to
+     */
+    final int cacheGeneration;
+
+    /**
+     * The empty block, indexed 0, and each coloured block, indexed by value
+     */
+    private final Image[] blocks;
+
+    /**
+     * The hover overlay
+     */
+    private final Image hover;
+
+    /**
+     * The centre circle overlay
+     */
+    private final Image circle;
+
+    /**
+     * The width and height of a block, used as the cache key
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    private record Size(double width, double height) {
+    }
+
+    /**
+     * Render every image for a block size
+     * @param width the width of a block
+     * @param height the height of a block
+     */
+    private BlockSprites(double width, double height) {
+        this.cacheGeneration = generation;
+        blocks = new Image[GameBlock.COLOURS.length];
+        blocks[0] = render(width, height, gc -> paintEmpty(gc, width, height));
+        for(var value = 1; value < blocks.length; value++) {
+            Color colour = GameBlock.COLOURS[value];
+            blocks[value] = render(width, height, gc -> paintColour(gc, colour, width, height));
+        }
+        hover = render(width, height, gc -> paintHover(gc, width, height));
+        circle = render(width, height, gc -> paintCircle(gc, width, height));
+    }
+
+    /**
+     * Get the images for a block size, rendering them the first time
+     * @param width the width of a block
+     * @param height the height of a block
+     * @return the images
+     */
+    public static BlockSprites forSize(double width, double height) {
+        return cache.computeIfAbsent(new Size(width, height), size -> {
+            logger.info("Rendering block sprites for {} x {} at scale {}", width, height, scale);
+            return new BlockSprites(width, height);
+        });
+    }
+
+    /**
+     * Check whether this set of images is still current
+     * @return false once the cache has been thrown away
+     */
+    public boolean isCurrent() {
+        return cacheGeneration == generation;
+    }
+
+    /**
+     * Set the scale blocks are displayed at, throwing the cached images away if it has changed
+     * @param newScale the GamePane's scale
+     */
+    public static void setScale(double newScale) {
+        if(newScale <= 0 || newScale == scale) return;
+        scale = newScale;
+        invalidate();
+    }
+
+    /**
+     * Throw every cached image away
+     */
+    public static void invalidate() {
+        cache.clear();
+        generation++;
+    }
+
+    /**
+     * Draw a block
+     * @param gc the graphics context to draw into
+     * @param value the value of the block, 0 for empty
+     * @param x the x position of the block
+     * @param y the y position of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public void drawBlock(GraphicsContext gc, int value, double x, double y, double width, double height) {
+        gc.drawImage(blocks[value], x, y, width, height);
+    }
+
+    /**
+     * Draw the hover overlay over a block
+     * @param gc the graphics context to draw into
+     * @param x the x position of the block
+     * @param y the y position of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public void drawHover(GraphicsContext gc, double x, double y, double width, double height) {
+        gc.drawImage(hover, x, y, width, height);
+    }
+
+    /**
+     * Draw the centre circle over a block
+     * @param gc the graphics context to draw into
+     * @param x the x position of the block
+     * @param y the y position of the block
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    public void drawCircle(GraphicsContext gc, double x, double y, double width, double height) {
+        gc.drawImage(circle, x, y, width, height);
+    }
+
+    /**
+     * Render an image at screen resolution
+     * @param width the width of a block
+     * @param height the height of a block
+     * @param painter draws the image
+     * @return the image
+     */
+    private static Image render(double width, double height, Consumer<GraphicsContext> painter) {
+        Canvas canvas = new Canvas(Math.ceil(width * scale), Math.ceil(height * scale));
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.scale(scale, scale);
+        painter.accept(gc);
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(parameters, null);
+    }
+
+    /**
+     * Paint an empty block
+     * @param gc the graphics context
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    private static void paintEmpty(GraphicsContext gc, double width, double height) {
+        gc.setFill(Color.rgb(0, 0, 0, 0.6));
+        gc.fillRect(0, 0, width, height);
+        gc.setStroke(Color.GREY);
+        gc.strokeRect(0, 0, width, height);
+    }
+
+    /**
+     * Paint a coloured block: a triangle of the colour and a washed out triangle below it
+     * @param gc the graphics context
+     * @param colour the colour
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    static void paintColour(GraphicsContext gc, Color colour, double width, double height) {
+        gc.setFill(colour);
+        gc.fillPolygon(new double[]{0, width, 0}, new double[]{0, 0, height}, 3);
+        gc.setFill(new Color(colour.getRed() * 0.8, colour.getGreen() * 0.8, colour.getBlue() * 0.8,
+            colour.getOpacity()));
+        gc.fillPolygon(new double[]{width, width, 0}, new double[]{0, height, height}, 3);
+    }
+
+    /**
+     * Paint the hover overlay
+     * @param gc the graphics context
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    private static void paintHover(GraphicsContext gc, double width, double height) {
+        gc.setFill(Color.rgb(255, 255, 255, 0.3));
+        gc.fillRect(0, 0, width, height);
+        gc.setStroke(Color.GREY);
+        gc.strokeRect(0, 0, width, height);
+    }
+
+    /**
+     * Paint the centre circle overlay
+     * @param gc the graphics context
+     * @param width the width of the block
+     * @param height the height of the block
+     */
+    private static void paintCircle(GraphicsContext gc, double width, double height) {
+        double radius = Math.min(width, height) * 0.3;
+        gc.setFill(Color.rgb(255, 255, 255, 0.6));
+        gc.fillOval(width / 2.0 - radius, height / 2.0 - radius, 2 * radius, 2 * radius);
+    }
+}
@@ -0,0 +1,123 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Drives every block fade-out on a board from a single AnimationTimer. Active fades are kept in a fixed array and all
+ * advanced in one pulse callback, and the timer stops itself as soon as none are left.
+ *
+ * The number of fades at once is capped: starting one more when full finishes the oldest straight away, so rapid line
+ * clears can never pile up work. A fade also ends early if its block is filled again.
+ *
+ * Must only be used on the JavaFX thread.
+ */
+public class FadeAnimator extends AnimationTimer {
+
+    /**
+     * How long a fade lasts, in nanoseconds
+     */
+    public static final long DURATION = 1_000_000_000L;
+
+    /**
+     * The blocks being faded, oldest first
+     */
+    private final GameBlock[] blocks;
+
+    /**
+     * The pulse time each fade started at, or -1 if it has not been drawn yet
+     */
+    private final long[] starts;
+
+    /**
+     * The number of active fades
+     */
+    private int count = 0;
+
+    /**
+     * Whether the timer is running
+     */
+    private boolean running = false;
+
+    /**
+     * Create a new animator
+     * @param limit the most fades that can run at once
+     */
+    public FadeAnimator(int limit) {
+        blocks = new GameBlock[Math.max(1, limit)];
+        starts = new long[blocks.length];
+    }
+
+    /**
+     * Start fading a block, restarting its fade if it is already fading
+     * @param block the block to fade
+     */
+    public void fade(GameBlock block) {
+        for(var i = 0; i < count; i++) {
+            if(blocks[i] == block) {
+                remove(i);
+                break;
+            }
+        }
+        if(count == blocks.length) {
+            //Full, so finish the oldest fade now
+            blocks[0].paintEmpty();
+            remove(0);
+        }
+        blocks[count] = block;
+        starts[count] = -1;
+        count++;
+        if(!running) {
+            running = true;
+            start();
+        }
+    }
+
+    /**
+     * Get the number of fades running
+     * @return active fades
+     */
+    public int getActiveCount() {
+        return count;
+    }
+
+    /**
+     * Advance every fade by one frame, and stop once there are none left
+     * @param now the time of this pulse in nanoseconds
+     */
+    @Override
+    public void handle(long now) {
+        var i = 0;
+        while(i < count) {
+            GameBlock block = blocks[i];
+            //A block that has been filled again is painted normally instead
+            if(block.getValue() != 0) {
+                remove(i);
+                continue;
+            }
+            if(starts[i] < 0) starts[i] = now;
+            double progress = (double) (now - starts[i]) / DURATION;
+            if(progress >= 1) {
+                block.paintEmpty();
+                remove(i);
+                continue;
+            }
+            block.paintFade(progress);
+            i++;
+        }
+        if(count == 0) {
+            stop();
+            running = false;
+        }
+    }
+
+    /**
+     * Remove a fade, keeping the rest in order
+     * @param index the index of the fade
+     */
+    private void remove(int index) {
+        count--;
+        System.arraycopy(blocks, index + 1, blocks, index, count - index);
+        System.arraycopy(starts, index + 1, starts, index, count - index);
+        blocks[count] = null;
+    }
+}
@@ -1,10 +1,9 @@
 package uk.ac.soton.comp1206.component;
 
-import javafx.animation.AnimationTimer;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.value.ObservableValue;
-import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -12,13 +11,15 @@ import org.apache.logging.log4j.Logger;
 /**
  * The Visual User Interface component representing a single block in the grid.
  *
- * Extends Canvas and is responsible for drawing itself.
+ * A block is not a node of its own. It is responsible for drawing itself into its region of the canvas shared by the
+ * whole board, and the board works out which block the mouse is over.
  *
  * Displays an empty square (when the value is 0) or a coloured square depending on value.
  *
- * The GameBlock value should be bound to a corresponding block in the Grid model.
+ * The GameBlock value should be bound to a corresponding block in the Grid model. The block does not repaint itself
+ * when the value changes; its GameBoard repaints all changed blocks together once per pulse.
  */
-public class GameBlock extends Canvas {
+public class GameBlock {
     /**
      * Logger to keep track of events occurring
      */
@@ -70,138 +71,109 @@ public class GameBlock extends Canvas {
      */
     private final IntegerProperty value = new SimpleIntegerProperty(0);
 
+    /**
+     * The board this block belongs to
+     */
+    private final GameBoard gameBoard;
+
+    /**
+     * The graphics context this block draws into
+     */
+    private final GraphicsContext gc;
+
+    /**
+     * The x position of this block's top left corner in the graphics context
+     */
+    private final double originX;
 
+    /**
+     * The y position of this block's top left corner in the graphics context
+     */
+    private final double originY;
 
     /**
-     * Create a new single Game Block
+     * The pre-rendered images for this block's size, or null until first painted
+     */
+    private BlockSprites sprites;
+
+
+
+    /**
+     * Create a new single Game Block drawing into the canvas shared by the whole board, at the position of its column
+     * and row
      * @param gameBoard the board this block belongs to
      * @param x the column the block exists in
      * @param y the row the block exists in
-     * @param width the width of the canvas to render
-     * @param height the height of the canvas to render
+     * @param width the width of the block
+     * @param height the height of the block
+     * @param gc the graphics context of the board's canvas
      */
-    public GameBlock(GameBoard gameBoard, int x, int y, double width, double height) {
-        /**
-         *
-         */
+    public GameBlock(GameBoard gameBoard, int x, int y, double width, double height, GraphicsContext gc) {
+        this.gameBoard = gameBoard;
         this.width = width;
         this.height = height;
         this.x = x;
         this.y = y;
+        this.gc = gc;
+        this.originX = x * width;
+        this.originY = y * height;
 
-        //A canvas needs a fixed width and height
-        setWidth(width);
-        setHeight(height);
-
-        //Do an initial paint
+        //Do an initial paint. Later repaints are batched by the GameBoard when the value changes.
         paint();
-
-        //When the value property is updated, call the internal updateValue method
-        value.addListener(this::updateValue);
     }
 
     /**
-     * When the value of this block is updated,
-     * @param observable what was updated
-     * @param oldValue the old value
-     * @param newValue the new value
+     * Handle painting of the block
      */
-    private void updateValue(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
-        paint();
+    public void paint() {
+        //Empty and coloured blocks are both pre-rendered, indexed by value
+        gc.clearRect(originX, originY, width, height);
+        sprites().drawBlock(gc, value.get(), originX, originY, width, height);
     }
 
     /**
-     * Handle painting of the block canvas
+     * Get the pre-rendered images for this block's size, fetching new ones if the cache has been thrown away
+     * @return the images
      */
-    public void paint() {
-        //If the block is empty, paint as empty
-        if(value.get() == 0) {
-            paintEmpty();
-        } else {
-            //If the block is not empty, paint with the colour represented by the value
-            paintColor(COLOURS[value.get()]);
-        }
+    private BlockSprites sprites() {
+        if(sprites == null || !sprites.isCurrent()) sprites = BlockSprites.forSize(width, height);
+        return sprites;
     }
 
     /**
-     * Paint this canvas empty
+     * Paint this block empty
      */
     public void paintEmpty() {
-        var gc = getGraphicsContext2D();
-
-        // Clear
-        gc.clearRect(0, 0, width, height);
-
-        // Fill
-        gc.setFill(Color.rgb(0, 0, 0, 0.6)); // Partially transparent black color
-        gc.fillRect(0, 0, width, height);
-
-        // Border
-        gc.setStroke(Color.GREY);
-        gc.strokeRect(0, 0, width, height);
-
+        gc.clearRect(originX, originY, width, height);
+        sprites().drawBlock(gc, 0, originX, originY, width, height);
     }
 
     /**
-     * Paint this canvas with the given colour
+     * Paint this block with the given colour
      *
      * @param colour the colour to paint
      */
     public void paintColor(Color colour) {
-            var gc = getGraphicsContext2D();
-
-            // Clear canvas
-            gc.clearRect(0, 0, getWidth(), getHeight());
-
-            // Draw first triangle
-            gc.setFill(colour);
-            gc.fillPolygon(new double[]{0, getWidth(), 0}, new double[]{0, 0, getHeight()}, 3);
-
-            // Draw second triangle with washed-out color
-            Color washedOutColor = createWashedOutColor(colour);
-            gc.setFill(washedOutColor);
-            gc.fillPolygon(new double[]{getWidth(), getWidth(), 0}, new double[]{0, getHeight(), getHeight()}, 3);
-        }
-
-    /**
-     * Creates a washed down version of the previous colour
-     * @param paint takes a paint parameter and lowers the rgb values
-     * @return A washed down version of the paint colour
-     */
-    private Color createWashedOutColor(Paint paint) {
-            if (paint instanceof Color) {
-                //If block is painted
-                Color color = (Color) paint;
-                //Create washed out red
-                double red = color.getRed() * 0.8;
-                //Create washed out green
-                double green = color.getGreen() * 0.8;
-                //Create washed out blue
-                double blue = color.getBlue() * 0.8;
-                double opacity = color.getOpacity();
-                return new Color(red, green, blue, opacity);
-            } else {
-                return Color.WHITE; // fallback to white if paint is not a color
+        gc.clearRect(originX, originY, width, height);
+        for(var index = 1; index < COLOURS.length; index++) {
+            if(COLOURS[index].equals(colour)) {
+                sprites().drawBlock(gc, index, originX, originY, width, height);
+                return;
             }
         }
+        //Colours outside the set have no image, so draw them directly
+        gc.save();
+        gc.translate(originX, originY);
+        BlockSprites.paintColour(gc, colour, width, height);
+        gc.restore();
+    }
 
     /**
      * Draw a circle on the center of a block
      */
 
     public void drawCircle() {
-        var gc = getGraphicsContext2D();
-
-        //Calculate the radius of the circle
-        double radius = Math.min(width, height) * 0.3;
-
-        //Calculate the center of the rectangle
-        double centerX = width / 2.0;
-        double centerY = height / 2.0;
-
-        //Draw the grey circle
-        gc.setFill(Color.rgb(255, 255, 255, 0.6));
-        gc.fillOval(centerX - radius, centerY - radius, 2 * radius, 2 * radius);
+        sprites().drawCircle(gc, originX, originY, width, height);
     }
 
     /**
@@ -209,62 +181,35 @@ public class GameBlock extends Canvas {
      * @param colour sets colour of the block underneath the hover
      */
     public void drawHover(Color colour) {
-        var gc = getGraphicsContext2D();
-
-        // Fill
-        gc.setFill(Color.rgb(255, 255, 255, 0.3)); // Partially transparent black color
-        gc.fillRect(0, 0, width, height);
-
-        // Border
-        gc.setStroke(Color.GREY);
-        gc.strokeRect(0, 0, width, height);
+        //Partially transparent white with a grey border
+        sprites().drawHover(gc, originX, originY, width, height);
     }
 
     /**
      * Removes the hover effect on the block
      */
     public void removeHover() {
-        var gc = getGraphicsContext2D();
-
         // Clear
-        gc.clearRect(0, 0, width, height);
+        gc.clearRect(originX, originY, width, height);
         paint();
     }
 
     /**
-     * Creates a fadeout animation when the block is removed from the board
+     * Creates a fadeout animation when the block is removed from the board. The fade is run by the board's animator.
      */
     public void fadeOut() {
-        var gc = getGraphicsContext2D();
-        AnimationTimer timer = new AnimationTimer() {
-
-            private long startTime = -1;
-            private final long duration = 1000_000_000; // 1 second in nanoseconds
-            private final double initialOpacity = 1.0;
-            private final double maxGreen = 1.0;
-            private double greenLevel = 0.0;
-
-            @Override
-            public void handle(long now) {
-                if(getValue() != 0) return;
-                if (startTime < 0) {
-                    startTime = now;
-                }
-                double elapsedSeconds = (now - startTime) / 1_000_000_000.0;
-                double opacity = initialOpacity * (1.0 - elapsedSeconds / (duration / 1_000_000_000.0));
-                if (opacity <= 0.0) {
-                    stop();
-                    paintEmpty();
-                } else {
-                    paintEmpty();
-                    greenLevel = Math.min(maxGreen, elapsedSeconds / (duration / 1_000_000_000.0));
-                    Color fill = getColor();
-                    gc.setFill(new Color(fill.getRed(), greenLevel, fill.getBlue(), opacity));
-                    gc.fillRect(getX(), getY(), getWidth(), getHeight());
-                }
-            }
-        };
-        timer.start();
+        gameBoard.getFades().fade(this);
+    }
+
+    /**
+     * Draw one frame of the fade out: the empty block under a flash that turns green as it fades away
+     * @param progress how far through the fade, from 0 to 1
+     */
+    void paintFade(double progress) {
+        paintEmpty();
+        Color fill = getColor();
+        gc.setFill(new Color(fill.getRed(), progress, fill.getBlue(), 1.0 - progress));
+        gc.fillRect(originX, originY, width, height);
     }
 
     /**
@@ -1,5 +1,8 @@
 package uk.ac.soton.comp1206.component;
 
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
@@ -7,19 +10,22 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.BlockClickedListener;
 import uk.ac.soton.comp1206.event.RightClickedListener;
+import uk.ac.soton.comp1206.game.CellSet;
 import uk.ac.soton.comp1206.game.Grid;
 
-import java.util.HashSet;
-
 /**
  * A GameBoard is a visual component to represent the visual GameBoard.
- * It extends a GridPane to hold a grid of GameBlocks.
+ * It extends a GridPane to hold a grid of GameBlocks, which all draw into one shared Canvas. The board has a single
+ * node and a single texture however many blocks it has, and works out which block the mouse is over itself.
  *
  * The GameBoard can hold an internal grid of it's own, for example, for displaying an upcoming block. It also be
  * linked to an external grid, for the main game board.
  *
  * The GameBoard is only a visual representation and should not contain game logic or model logic in it, which should
  * take place in the Grid.
+ *
+ * Changes to the grid are collected into a set of dirty blocks, and only those blocks are repainted, once, on the next
+ * pulse.
  */
 public class GameBoard extends GridPane {
     /**
@@ -28,25 +34,30 @@ public class GameBoard extends GridPane {
 
     private static final Logger logger = LogManager.getLogger(GameBoard.class);
 
+    /**
+     * The most blocks that can fade out at once on one board
+     */
+    public static final int MAX_FADES = 256;
+
     /**
      * Number of columns in the board
      */
-    private final int cols;
+    protected final int cols;
 
     /**
      * Number of rows in the board
      */
-    private final int rows;
+    protected final int rows;
 
     /**
      * The visual width of the board - has to be specified due to being a Canvas
      */
-    private final double width;
+    protected final double width;
 
     /**
      * The visual height of the board - has to be specified due to being a Canvas
      */
-    private final double height;
+    protected final double height;
 
     /**
      * The grid this GameBoard represents
@@ -58,6 +69,16 @@ public class GameBoard extends GridPane {
      */
     GameBlock[][] blocks;
 
+    /**
+     * The canvas every block is drawn into
+     */
+    private Canvas canvas;
+
+    /**
+     * The block the mouse is over, or null
+     */
+    private GameBlock hovered;
+
     /**
      * The listener to call when a specific block is clicked
      */
@@ -72,6 +93,33 @@ public class GameBoard extends GridPane {
      * Boolean variable to ensure only the GameBoard grid has the mouse functionality, and the pieceBoard doesn't
      */
     Boolean mouseTrack = false;
+
+    /**
+     * The blocks that have changed since the last repaint
+     */
+    private CellSet dirty;
+
+    /**
+     * Runs every fade-out on this board
+     */
+    private FadeAnimator fades;
+
+    /**
+     * Whether a repaint has been scheduled for the next pulse
+     */
+    private boolean repaintScheduled = false;
+
+    /**
+     * Timer that repaints the dirty blocks on the next pulse, then stops itself
+     */
+    private final AnimationTimer repaintTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            repaintScheduled = false;
+            repaintDirty();
+        }
+    };
     /**
      * Create a new GameBoard, based off a given grid, with a visual width and height.
      * @param grid linked grid
@@ -127,11 +175,16 @@ public class GameBoard extends GridPane {
         //Set the width and heigh
         setMaxWidth(width);
         setMaxHeight(height);
-        //set gridlines
-        setGridLinesVisible(true);
+        //The blocks draw their own borders, and grid lines would add a node per line
+        setGridLinesVisible(false);
+        //Every block is drawn into one canvas
+        canvas = new Canvas(width, height);
+        add(canvas, 0, 0);
         //Set listener
         setOnRightClick(rightClickedListener);
         blocks = new GameBlock[cols][rows];
+        dirty = new CellSet(cols, rows);
+        fades = new FadeAnimator(Math.min(cols * rows, MAX_FADES));
         //Create array of blocks
         for(var y = 0; y < rows; y++) {
             for (var x = 0; x < cols; x++) {
@@ -140,12 +193,85 @@ public class GameBoard extends GridPane {
             }
         }
 
+        //Map the mouse onto the blocks
+        canvas.setOnMouseMoved(event -> hover(blockAt(event)));
+        canvas.setOnMouseExited(event -> hover(null));
+        canvas.setOnMouseClicked(event -> {
+            if(event.getButton() != MouseButton.PRIMARY) return;
+            GameBlock block = blockAt(event);
+            if(block != null) blockClicked(event, block);
+        });
+
         this.setOnMouseClicked((e) -> {
             //If the mouse is right-clicked, then do righClicked()
             if(e.getButton() != MouseButton.SECONDARY) return;
             rightClicked();
         });
 
+        //Collect changes to the grid and repaint them together
+        grid.addChangeListener(this::gridChanged);
+    }
+
+    /**
+     * Mark the blocks that changed in the grid as dirty and schedule a repaint
+     * @param changed the blocks that changed
+     */
+    private void gridChanged(CellSet changed) {
+        dirty.addAll(changed);
+        scheduleRepaint();
+    }
+
+    /**
+     * Mark a single block as needing a repaint on the next pulse
+     * @param x column
+     * @param y row
+     */
+    protected void markDirty(int x, int y) {
+        dirty.add(x, y);
+        scheduleRepaint();
+    }
+
+    /**
+     * Mark every block as needing a repaint on the next pulse, for example after the block images have changed
+     */
+    public void repaintAll() {
+        for(var y = 0; y < rows; y++) {
+            for(var x = 0; x < cols; x++) {
+                dirty.add(x, y);
+            }
+        }
+        scheduleRepaint();
+    }
+
+    /**
+     * Schedule a repaint of the dirty blocks on the next pulse, if one is not already scheduled
+     */
+    private void scheduleRepaint() {
+        if(repaintScheduled) return;
+        repaintScheduled = true;
+        if(Platform.isFxApplicationThread()) {
+            repaintTimer.start();
+        } else {
+            Platform.runLater(repaintTimer::start);
+        }
+    }
+
+    /**
+     * Repaint every dirty block once and clear the dirty set
+     */
+    private void repaintDirty() {
+        for(int index = dirty.nextIndex(0); index >= 0; index = dirty.nextIndex(index + 1)) {
+            repaintBlock(blocks[dirty.getX(index)][dirty.getY(index)]);
+        }
+        dirty.clear();
+    }
+
+    /**
+     * Repaint a single block whose value has changed
+     * @param block the block to repaint
+     */
+    protected void repaintBlock(GameBlock block) {
+        block.paint();
     }
 
     /**
@@ -158,29 +284,9 @@ public class GameBoard extends GridPane {
         var blockWidth = width / cols;
         var blockHeight = height / rows;
 
-        //Create a new GameBlock UI component
-        GameBlock block = new GameBlock(this, x, y, blockWidth, blockHeight);
-        //Add to the GridPane
-        add(block,x,y);
+        //Create a new GameBlock drawing into the board's canvas
+        GameBlock block = new GameBlock(this, x, y, blockWidth, blockHeight, canvas.getGraphicsContext2D());
 
-        //Add mouse enter handler to create hover effect
-        block.setOnMouseEntered(event -> {
-            if(block.getValue() != 0) return;
-            block.drawHover(block.getColor());
-        });
-
-        //Add mouse exit handler to return block back to normal
-        block.setOnMouseExited(event -> {
-            if(block.getValue() != 0) return;
-            block.paintEmpty();
-        });
-
-        //Add a mouse click handler to the block to trigger GameBoard blockClicked method
-        block.setOnMouseClicked((e) ->  {
-            if(e.getButton() != MouseButton.PRIMARY) return;
-            blockClicked(e, block);
-        });
-        
         //Add to our block directory
         blocks[x][y] = block;
         //Link the GameBlock component to the corresponding value in the Grid
@@ -191,6 +297,29 @@ public class GameBoard extends GridPane {
         return block;
     }
 
+    /**
+     * Find the block under the mouse
+     * @param event the mouse event
+     * @return the block, or null if the mouse is outside the blocks
+     */
+    private GameBlock blockAt(MouseEvent event) {
+        int x = (int) (event.getX() * cols / width);
+        int y = (int) (event.getY() * rows / height);
+        if(x < 0 || y < 0 || x >= cols || y >= rows) return null;
+        return blocks[x][y];
+    }
+
+    /**
+     * Move the hover effect onto a block, taking it off the one it was on. Only boards tracking the mouse show it.
+     * @param block the block the mouse is now over, or null
+     */
+    private void hover(GameBlock block) {
+        if(!mouseTrack || block == hovered) return;
+        if(hovered != null && hovered.getValue() == 0) hovered.paintEmpty();
+        hovered = block;
+        if(hovered != null && hovered.getValue() == 0) hovered.drawHover(hovered.getColor());
+    }
+
     /**
      * Set the listener to handle an event when a block is clicked
      * @param listener to be set
@@ -204,7 +333,7 @@ public class GameBoard extends GridPane {
      * @param event mouse event
      * @param block block clicked on
      */
-    private void blockClicked(MouseEvent event, GameBlock block) {
+    protected void blockClicked(MouseEvent event, GameBlock block) {
         logger.info("Block clicked: {}", block);
 
         if(blockClickedListener != null) {
@@ -242,14 +371,22 @@ public class GameBoard extends GridPane {
         mouseTrack = true;
     }
 
+    /**
+     * Get the animator running this board's fade-outs
+     * @return the animator
+     */
+    public FadeAnimator getFades() {
+        return fades;
+    }
+
     /**
      * Animates the fadeout
-     * @param coordinates for the animation to occur
+     * @param blocks the blocks for the animation to occur on
      */
-    public void fadeOut(HashSet<GameBlockCoordinate> coordinates) {
-        for (GameBlockCoordinate coordinate : coordinates) {
-            //For each block in the hashset, fade the block
-            getBlock(coordinate.getX(), coordinate.getY()).fadeOut();
+    public void fadeOut(CellSet blocks) {
+        for(int index = blocks.nextIndex(0); index >= 0; index = blocks.nextIndex(index + 1)) {
+            //For each block in the set, fade the block
+            getBlock(blocks.getX(index), blocks.getY(index)).fadeOut();
         }
     }
 }
@@ -4,14 +4,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.PieceShape;
 /**
  * A PieceBoard is a visual component to represent the next piece.
- * It extends a GridPane to hold a grid of GameBlocks. It updates with
+ * It draws its grid of GameBlocks into a single canvas. It updates with
  * the next piece to be played when the game logic updates and the
  * piece is played
  *
  */
-public class PieceBoard extends GameBoard{
+public class PieceBoard extends GameBoard {
     /**
      * Logger to keep track of events occurring
      */
@@ -33,28 +34,39 @@ public class PieceBoard extends GameBoard{
      */
     public void displayPiece(GamePiece gamePiece) {
         logger.info("Displaying a new piece: {}", gamePiece);
-        //Gets the blocks for the piece
-        int[][] blocks = gamePiece.getBlocks();
-        for(var blockX = 0; blockX < blocks.length; blockX++)
-            for(var blockY = 0; blockY < blocks.length; blockY++) {
-                if(blocks[blockX][blockY] != 0) {
-                    //If the value of the block isnt 0, set the grid to this block
-                    grid.set(blockX, blockY, gamePiece.getValue());
-                }
-            }
-        this.getBlock(1,1).drawCircle();
-        //Draw centre circle
+        //Gets the filled blocks for the piece
+        PieceShape shape = gamePiece.getShape();
+        grid.beginUpdate();
+        for(var cell = 0; cell < shape.getCellCount(); cell++) {
+            //Set the grid to the value of this piece for each filled block
+            grid.set(shape.getCellX(cell), shape.getCellY(cell), gamePiece.getValue());
+        }
+        grid.commitUpdate();
+        //Make sure the centre circle is redrawn
+        markDirty(1, 1);
+    }
+
+    /**
+     * Repaint a block, drawing the centre circle over the middle block
+     * @param block the block to repaint
+     */
+    @Override
+    protected void repaintBlock(GameBlock block) {
+        super.repaintBlock(block);
+        if(block.getX() == 1 && block.getY() == 1) block.drawCircle();
     }
 
     /**
      * Resets the grid so that the visual pieces don't stack on top of each other
      */
     public void resetGrid() {
+        grid.beginUpdate();
         for(var rows = 0; rows < grid.getRows(); rows++) {
             for (var columns = 0; columns < grid.getCols(); columns++) {
                 //For each coordinate in the PieceBoard, reset the block
-                grid.set(rows, columns, 0);
+                if(grid.get(rows, columns) != 0) grid.set(rows, columns, 0);
             }
         }
+        grid.commitUpdate();
     }
 }
@@ -0,0 +1,99 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+/**
+ * A countdown bar showing how long is left to place the current piece. It shrinks from full width to nothing over the
+ * time allowed, turning from green to yellow at halfway and to red at three quarters.
+ *
+ * The bar is created once and re-armed for each piece with start(), which just sets a new deadline for the one
+ * AnimationTimer driving it. The timer only runs while the bar is counting down. Must only be used on the JavaFX
+ * thread.
+ */
+public class TimerBar extends Rectangle {
+
+    /**
+     * The width of the bar when full
+     */
+    private final double fullWidth;
+
+    /**
+     * The pulse time the countdown started at, or -1 until the first pulse after start()
+     */
+    private long startTime = -1;
+
+    /**
+     * The length of the countdown in nanoseconds
+     */
+    private long duration;
+
+    /**
+     * Whether the bar is counting down
+     */
+    private boolean running = false;
+
+    /**
+     * Redraws the bar on each pulse while it is counting down
+     */
+    private final AnimationTimer animation = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if(startTime < 0) startTime = now;
+            update((double) (now - startTime) / duration);
+        }
+    };
+
+    /**
+     * Create a new timer bar
+     * @param width the width of the bar when full
+     * @param height the height of the bar
+     */
+    public TimerBar(double width, double height) {
+        super(width, height, Color.GREEN);
+        this.fullWidth = width;
+    }
+
+    /**
+     * Start counting down again from full
+     * @param millis the time allowed in milliseconds
+     */
+    public void start(int millis) {
+        duration = Math.max(1, millis) * 1_000_000L;
+        startTime = -1;
+        update(0);
+        if(!running) {
+            running = true;
+            animation.start();
+        }
+    }
+
+    /**
+     * Stop counting down, leaving the bar as it is
+     */
+    public void stop() {
+        running = false;
+        animation.stop();
+    }
+
+    /**
+     * Set the width and colour of the bar for how far through the countdown it is, stopping at the end
+     * @param progress the fraction of the time used, from 0
+     */
+    private void update(double progress) {
+        if(progress >= 1) {
+            setWidth(0);
+            stop();
+            return;
+        }
+        setWidth(fullWidth * (1 - progress));
+        if(progress < 0.5) {
+            setFill(Color.GREEN.interpolate(Color.YELLOW, progress / 0.5));
+        } else if(progress < 0.75) {
+            setFill(Color.YELLOW.interpolate(Color.RED, (progress - 0.5) / 0.25));
+        } else {
+            setFill(Color.RED);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.game.CellSet;
+
+/**
+ * The Board Listener is used to mirror changes to a Board into a view of it, such as the properties of a Grid or the
+ * blocks of a GameBoard. Changes made inside an update are coalesced, so it is called once per move with every block
+ * that changed.
+ */
+public interface BoardListener {
+
+    /**
+     * Handle blocks on the board changing value
+     * @param changed the blocks that changed. The set is reused, so it is only valid during this call.
+     */
+    void boardChanged(CellSet changed);
+}
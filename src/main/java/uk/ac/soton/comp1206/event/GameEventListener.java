@@ -0,0 +1,82 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.game.CellSet;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+
+/**
+ * The Game Event Listener is used to listen to everything that happens inside a GameCore. Every method has an empty
+ * default, so a listener only needs to handle the events it cares about and a headless game can run with none.
+ */
+public interface GameEventListener {
+
+    /**
+     * Handle a piece being placed on the board
+     * @param piece the piece that was placed
+     * @param x the x coordinate of the centre of the piece
+     * @param y the y coordinate of the centre of the piece
+     */
+    default void piecePlaced(GamePiece piece, int x, int y) {
+    }
+
+    /**
+     * Handle a piece failing to be placed on the board
+     * @param piece the piece that could not be placed
+     * @param x the x coordinate of the centre of the piece
+     * @param y the y coordinate of the centre of the piece
+     */
+    default void placementFailed(GamePiece piece, int x, int y) {
+    }
+
+    /**
+     * Handle the next piece being generated
+     * @param nextPiece the next piece to be played
+     * @param followingPiece the following piece afterwards
+     */
+    default void nextPiece(GamePiece nextPiece, GamePiece followingPiece) {
+    }
+
+    /**
+     * Handle the current and following pieces being swapped
+     * @param nextPiece the next piece to be played
+     * @param followingPiece the following piece afterwards
+     */
+    default void piecesSwapped(GamePiece nextPiece, GamePiece followingPiece) {
+    }
+
+    /**
+     * Handle lines being cleared. Called before the blocks are emptied on the board.
+     * @param lines the number of lines cleared
+     * @param blocksToBeCleared the blocks to be cleared. The set is reused, so it is only valid during this call.
+     */
+    default void linesCleared(int lines, CellSet blocksToBeCleared) {
+    }
+
+    /**
+     * Handle the score changing
+     * @param score the new score
+     */
+    default void scoreChanged(int score) {
+    }
+
+    /**
+     * Handle the multiplier changing
+     * @param multiplier the new multiplier
+     */
+    default void multiplierChanged(int multiplier) {
+    }
+
+    /**
+     * Handle the level changing
+     * @param level the new level
+     */
+    default void levelChanged(int level) {
+    }
+
+    /**
+     * Handle a life being lost when the timer runs out
+     * @param lives the number of lives remaining
+     */
+    default void lifeLost(int lives) {
+    }
+}
@@ -1,17 +1,15 @@
 package uk.ac.soton.comp1206.event;
 
-import uk.ac.soton.comp1206.component.GameBlockCoordinate;
-
-import java.util.HashSet;
+import uk.ac.soton.comp1206.game.CellSet;
 
 /**
  * The LineClearedListener handles what happens when a line is cleared. It passes a
- * hashmap of the blocks to be cleared in a line
+ * set of the blocks to be cleared in a line
  */
 public interface LineClearedListener {
     /**
      * Handles the event when a line needs to be cleared
-     * @param blocksToBeCleared the blocks to be cleared
+     * @param blocksToBeCleared the blocks to be cleared. The set is reused, so it is only valid during this call.
      */
-    void lineCleared(HashSet<GameBlockCoordinate> blocksToBeCleared);
+    void lineCleared(CellSet blocksToBeCleared);
 }
@@ -0,0 +1,16 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.game.GameSnapshot;
+
+/**
+ * The Snapshot Listener is told each time a GameActor has finished a command, with an immutable snapshot of the game
+ * afterwards. It is called on the actor's thread, so anything touching the UI must be passed on to the JavaFX thread.
+ */
+public interface SnapshotListener {
+
+    /**
+     * Handle a new snapshot of the game
+     * @param snapshot the state of the game after the last command
+     */
+    void snapshotPublished(GameSnapshot snapshot);
+}
@@ -0,0 +1,367 @@
+package uk.ac.soton.comp1206.game;
+
+import uk.ac.soton.comp1206.event.BoardListener;
+
+/**
+ * The Board is the plain Java state of a game board, with no JavaFX dependencies, so it can be used headlessly by the
+ * GameCore. Each block holds an int value (0 = empty, otherwise the colour of the piece that filled it).
+ *
+ * For boards up to 64 columns wide (e.g. 5x5 up to 64x64) occupancy is also tracked as one long per row, with bit x of
+ * row y set when the block at (x, y) is filled. Placement checks are then a bounds check and a shift-and-AND of each
+ * of the piece's precomputed row masks. Wider boards fall back to checking block by block.
+ *
+ * The number of filled blocks in each row and column is kept up to date, so completed lines can be found by checking
+ * only the lines the last piece touched.
+ *
+ * Changes can be grouped with beginUpdate() and commitUpdate(), so a whole move reaches the BoardListener as a single
+ * set of changed blocks. Changes made outside an update are passed on straight away.
+ *
+ * A Grid wraps a Board to expose it to the UI as properties.
+ */
+public class Board {
+
+    /**
+     * The number of columns in this board
+     */
+    private final int cols;
+
+    /**
+     * The number of rows in this board
+     */
+    private final int rows;
+
+    /**
+     * The value of each block, indexed by (x + y * cols)
+     */
+    private final int[] values;
+
+    /**
+     * Occupancy of each row, with bit x of row y set when the block at (x, y) is not empty, or null if this board is
+     * more than 64 columns wide
+     */
+    private final long[] rowBits;
+
+    /**
+     * The number of filled blocks in each row, indexed by y
+     */
+    private final int[] rowCounts;
+
+    /**
+     * The number of filled blocks in each column, indexed by x
+     */
+    private final int[] columnCounts;
+
+    /**
+     * The range of columns and rows covered by the last piece played, so completed lines can be looked for there only
+     */
+    private int touchedMinX, touchedMaxX = -1, touchedMinY, touchedMaxY = -1;
+
+    /**
+     * Listener told about the blocks that change, if any
+     */
+    private BoardListener boardListener;
+
+    /**
+     * The blocks changed since the last time the listener was told
+     */
+    private final CellSet changed;
+
+    /**
+     * How many updates are currently open. Changes are held back until this returns to 0.
+     */
+    private int updateDepth;
+
+    /**
+     * Create a new empty Board with the specified number of columns and rows
+     * @param cols number of columns
+     * @param rows number of rows
+     * @throws IllegalArgumentException if either dimension is less than 1
+     */
+    public Board(int cols, int rows) {
+        if(cols < 1 || rows < 1) {
+            throw new IllegalArgumentException("A board needs at least one column and row, not " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.values = new int[cols * rows];
+        this.rowBits = cols <= Long.SIZE ? new long[rows] : null;
+        this.rowCounts = new int[rows];
+        this.columnCounts = new int[cols];
+        this.changed = new CellSet(cols, rows);
+    }
+
+    /**
+     * Set the listener to be told about the blocks that change
+     * @param boardListener the listener to be set
+     */
+    public void setBoardListener(BoardListener boardListener) {
+        this.boardListener = boardListener;
+    }
+
+    /**
+     * Start grouping changes together. Every beginUpdate() must be matched by a commitUpdate().
+     */
+    public void beginUpdate() {
+        updateDepth++;
+    }
+
+    /**
+     * Finish grouping changes together. Once the outermost update is committed, the listener is told about every
+     * block that changed during it.
+     */
+    public void commitUpdate() {
+        if(--updateDepth == 0) fireChanged();
+    }
+
+    /**
+     * Tell the listener about the blocks changed so far, if any
+     */
+    private void fireChanged() {
+        if(changed.isEmpty()) return;
+        if(boardListener != null) boardListener.boardChanged(changed);
+        changed.clear();
+    }
+
+    /**
+     * Get the number of columns in this board
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows in this board
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the value at the given x and y index within the board
+     * @param x column
+     * @param y row
+     * @return the value, or -1 if there is no such block
+     */
+    public int get(int x, int y) {
+        if(x < 0 || y < 0 || x >= cols || y >= rows) return -1;
+        return values[x + y * cols];
+    }
+
+    /**
+     * Update the value at the given x and y index within the board
+     * @param x column
+     * @param y row
+     * @param value the new value
+     */
+    public void set(int x, int y, int value) {
+        int index = x + y * cols;
+        //Update the fill counters when a block changes between empty and filled
+        boolean wasFilled = values[index] != 0;
+        if(wasFilled != (value != 0)) {
+            int change = wasFilled ? -1 : 1;
+            rowCounts[y] += change;
+            columnCounts[x] += change;
+            if(rowBits != null) {
+                rowBits[y] ^= 1L << x;
+            }
+        }
+        values[index] = value;
+        if(boardListener != null) {
+            changed.add(index);
+            if(updateDepth == 0) fireChanged();
+        }
+    }
+
+    /**
+     * Get the occupancy of a row
+     * @param y row
+     * @return a mask with bit x set when the block at (x, y) is not empty
+     * @throws IllegalStateException if this board is more than 64 columns wide
+     */
+    public long getRowMask(int y) {
+        if(rowBits == null) throw new IllegalStateException("Row masks are only kept for boards up to 64 columns wide");
+        return rowBits[y];
+    }
+
+    /**
+     * Check whether every block in a row is filled
+     * @param y row
+     * @return true if the row is a complete line
+     */
+    public boolean isRowFull(int y) {
+        return rowCounts[y] == cols;
+    }
+
+    /**
+     * Check whether every block in a column is filled
+     * @param x column
+     * @return true if the column is a complete line
+     */
+    public boolean isColumnFull(int x) {
+        return columnCounts[x] == rows;
+    }
+
+    /**
+     * Get the number of filled blocks on the board
+     * @return number of filled blocks
+     */
+    public int getFilledCount() {
+        int filled = 0;
+        for(int count : rowCounts) filled += count;
+        return filled;
+    }
+
+    /**
+     * Get the first column covered by the last piece played
+     * @return leftmost column touched
+     */
+    public int getTouchedMinX() {
+        return touchedMinX;
+    }
+
+    /**
+     * Get the last column covered by the last piece played
+     * @return rightmost column touched, or -1 if no piece has been played
+     */
+    public int getTouchedMaxX() {
+        return touchedMaxX;
+    }
+
+    /**
+     * Get the first row covered by the last piece played
+     * @return top row touched
+     */
+    public int getTouchedMinY() {
+        return touchedMinY;
+    }
+
+    /**
+     * Get the last row covered by the last piece played
+     * @return bottom row touched, or -1 if no piece has been played
+     */
+    public int getTouchedMaxY() {
+        return touchedMaxY;
+    }
+
+    /**
+     * Checks if piece can be played on the board at given (x,y) coordinates
+     * @param piece The game piece to be played
+     * @param placeX The x coordinate of the centre of the piece
+     * @param placeY The y coordinate of the centre of the piece
+     * @return Whether the piece can be played
+     */
+    public boolean canPlayPiece(GamePiece piece, int placeX, int placeY) {
+        PieceShape shape = piece.getShape();
+        if(rowBits != null) {
+            //Bounding box of the shape on the board
+            int left = placeX - 1 + shape.getMinX();
+            int top = placeY - 1 + shape.getMinY();
+            int height = shape.getMaxY() - shape.getMinY();
+            if(left < 0 || top < 0 || placeX - 1 + shape.getMaxX() >= cols || top + height >= rows) return false;
+            for(var row = 0; row <= height; row++) {
+                if((rowBits[top + row] & ((long) shape.getRowMask(row) << left)) != 0) return false;
+            }
+            return true;
+        }
+
+        var topX = placeX - 1;
+        var topY = placeY - 1;
+        for(var cell = 0; cell < shape.getCellCount(); cell++) {
+            //Blocks off the board come back as -1, so count as a conflict
+            if(get(topX + shape.getCellX(cell), topY + shape.getCellY(cell)) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Play a piece and update the board with the corresponding blocks
+     * @param piece The game piece being added to the board
+     * @param placeX The x coordinate of the centre of the piece
+     * @param placeY The y coordinate of the centre of the piece
+     */
+    public void playPiece(GamePiece piece, int placeX, int placeY) {
+        var topX = placeX - 1;
+        var topY = placeY - 1;
+        int pieceValue = piece.getValue();
+        PieceShape shape = piece.getShape();
+
+        //Remember where the piece landed so only those lines need checking afterwards
+        touchedMinX = topX + shape.getMinX();
+        touchedMaxX = topX + shape.getMaxX();
+        touchedMinY = topY + shape.getMinY();
+        touchedMaxY = topY + shape.getMaxY();
+
+        if(rowBits != null) {
+            for(var y = touchedMinY; y <= touchedMaxY; y++) {
+                long mask = (long) shape.getRowMask(y - touchedMinY) << touchedMinX;
+                long added = mask & ~rowBits[y];
+                rowBits[y] |= mask;
+                rowCounts[y] += Long.bitCount(added);
+                //Update the counters and values for each block the piece covers in this row
+                while(mask != 0) {
+                    int x = Long.numberOfTrailingZeros(mask);
+                    if((added & (1L << x)) != 0) columnCounts[x]++;
+                    values[x + y * cols] = pieceValue;
+                    if(boardListener != null) changed.add(x + y * cols);
+                    mask &= mask - 1;
+                }
+            }
+            if(updateDepth == 0) fireChanged();
+            return;
+        }
+
+        beginUpdate();
+        for(var cell = 0; cell < shape.getCellCount(); cell++) {
+            set(topX + shape.getCellX(cell), topY + shape.getCellY(cell), pieceValue);
+        }
+        commitUpdate();
+    }
+
+    /**
+     * Empty every block in a row
+     * @param y row
+     */
+    public void clearRow(int y) {
+        int base = y * cols;
+        for(var x = 0; x < cols; x++) {
+            if(values[base + x] == 0) continue;
+            values[base + x] = 0;
+            columnCounts[x]--;
+            if(boardListener != null) changed.add(base + x);
+        }
+        rowCounts[y] = 0;
+        if(rowBits != null) rowBits[y] = 0;
+        if(updateDepth == 0) fireChanged();
+    }
+
+    /**
+     * Empty every block in a column
+     * @param x column
+     */
+    public void clearColumn(int x) {
+        long bit = ~(1L << x);
+        for(var y = 0; y < rows; y++) {
+            int index = x + y * cols;
+            if(values[index] == 0) continue;
+            values[index] = 0;
+            rowCounts[y]--;
+            if(rowBits != null) rowBits[y] &= bit;
+            if(boardListener != null) changed.add(index);
+        }
+        columnCounts[x] = 0;
+        if(updateDepth == 0) fireChanged();
+    }
+
+    /**
+     * Empty every block on the board
+     */
+    public void clear() {
+        beginUpdate();
+        for(var y = 0; y < rows; y++) {
+            clearRow(y);
+        }
+        commitUpdate();
+    }
+}
@@ -0,0 +1,168 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Arrays;
+
+/**
+ * A reusable set of blocks on a board, stored as a bitset with one bit per block at index (x + y * cols).
+ *
+ * Adding, checking and iterating blocks never allocates or boxes, so a single CellSet can be filled and read on every
+ * move. Iterate with nextIndex:
+ *
+ * for(int index = set.nextIndex(0); index >= 0; index = set.nextIndex(index + 1)) { ... }
+ */
+public final class CellSet {
+
+    /**
+     * The number of columns on the board
+     */
+    private final int cols;
+
+    /**
+     * The number of rows on the board
+     */
+    private final int rows;
+
+    /**
+     * The bits of the set, 64 blocks per word
+     */
+    private final long[] words;
+
+    /**
+     * The number of blocks in the set
+     */
+    private int size;
+
+    /**
+     * Create a new empty set for a board of the given size
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public CellSet(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.words = new long[(cols * rows + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+     * Add a block to the set
+     * @param x column
+     * @param y row
+     * @return true if the block was not already in the set
+     */
+    public boolean add(int x, int y) {
+        return add(x + y * cols);
+    }
+
+    /**
+     * Add a block to the set by index
+     * @param index the block index (x + y * cols)
+     * @return true if the block was not already in the set
+     */
+    public boolean add(int index) {
+        long bit = 1L << index;
+        int word = index >>> 6;
+        if((words[word] & bit) != 0) return false;
+        words[word] |= bit;
+        size++;
+        return true;
+    }
+
+    /**
+     * Add every block in another set of the same size to this one
+     * @param other the set to add
+     */
+    public void addAll(CellSet other) {
+        int total = 0;
+        for(int word = 0; word < words.length; word++) {
+            words[word] |= other.words[word];
+            total += Long.bitCount(words[word]);
+        }
+        size = total;
+    }
+
+    /**
+     * Check whether a block is in the set
+     * @param x column
+     * @param y row
+     * @return true if the block is in the set
+     */
+    public boolean contains(int x, int y) {
+        int index = x + y * cols;
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Get the index of the first block in the set at or after the given index
+     * @param fromIndex index to start looking from
+     * @return the block index (x + y * cols), or -1 if there are no more blocks
+     */
+    public int nextIndex(int fromIndex) {
+        int word = fromIndex >>> 6;
+        if(word >= words.length) return -1;
+        long bits = words[word] & (-1L << fromIndex);
+        while(true) {
+            if(bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if(++word == words.length) return -1;
+            bits = words[word];
+        }
+    }
+
+    /**
+     * Get the column of a block index
+     * @param index the block index
+     * @return column
+     */
+    public int getX(int index) {
+        return index % cols;
+    }
+
+    /**
+     * Get the row of a block index
+     * @param index the block index
+     * @return row
+     */
+    public int getY(int index) {
+        return index / cols;
+    }
+
+    /**
+     * Get the number of blocks in the set
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether the set is empty
+     * @return true if there are no blocks in the set
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every block from the set
+     */
+    public void clear() {
+        if(size == 0) return;
+        Arrays.fill(words, 0);
+        size = 0;
+    }
+
+    /**
+     * Get the number of columns on the board this set is for
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows on the board this set is for
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+}
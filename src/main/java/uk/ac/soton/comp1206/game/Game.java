@@ -1,30 +1,38 @@
 package uk.ac.soton.comp1206.game;
 
+import javafx.application.Platform;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.component.GameBlock;
-import uk.ac.soton.comp1206.component.GameBlockCoordinate;
+import uk.ac.soton.comp1206.event.BoardListener;
+import uk.ac.soton.comp1206.event.GameEventListener;
 import uk.ac.soton.comp1206.event.GameLoopListener;
 import uk.ac.soton.comp1206.event.GameOverListener;
 import uk.ac.soton.comp1206.event.LineClearedListener;
 import uk.ac.soton.comp1206.event.NextPieceListener;
+import uk.ac.soton.comp1206.event.SnapshotListener;
+import uk.ac.soton.comp1206.timer.TimerWheel;
 import uk.ac.soton.comp1206.utility.Multimedia;
 
-import java.util.HashSet;
-import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
 
 /**
  * The Game class handles the main logic, state and properties of the TetrECS game. Methods to manipulate the game state
  * and to handle actions made by the player should take place inside this class.
+ *
+ * The rules themselves live in a headless GameCore. The Game adapts it for the UI: it mirrors the core's state into
+ * properties, plays sounds in response to its events, forwards them to the scene's listeners and runs the timer.
+ *
+ * The core is owned by a GameActor, so it is only ever changed on the actor's thread. Clicks, rotations, swaps and
+ * timeouts are submitted to the actor as commands and run strictly in the order they arrive. After each command the
+ * actor publishes a GameSnapshot, which is copied into the properties on the JavaFX thread, along with the blocks
+ * the command changed into the grid, before the command's events are handled there. Nothing here waits for the actor: the setters and rotations only queue their
+ * command, and the new values reach the properties and piece boards with the next snapshot.
  */
-public class Game {
+public class Game implements GameEventListener {
     /**
      * Logger for keeping track of events
      */
@@ -41,17 +49,34 @@ public class Game {
     protected final int cols;
 
     /**
-     * The grid model linked to the game
+     * The headless game core holding the rules and state of this game. Only touched on the actor's thread.
+     */
+    protected final GameCore core;
+
+    /**
+     * The actor that owns the core and runs every command on it
+     */
+    protected final GameActor actor;
+
+    /**
+     * The grid model linked to the game, a copy of the core's board kept up to date from the snapshots
      */
     public final Grid grid;
+
     /**
-     * A random object for random piece selection
+     * The most recent snapshot copied into the grid and properties
      */
-    protected Random random;
+    protected GameSnapshot snapshot;
+
     /**
-     * The current piece being checked
+     * The current piece in the most recent snapshot
      */
     protected GamePiece currentPiece;
+
+    /**
+     * The following piece in the most recent snapshot
+     */
+    protected GamePiece followingPiece;
     /**
      * The current score value of the game.
      */
@@ -71,15 +96,6 @@ public class Game {
      * The current multiplier value for lines cleared.
      */
     protected IntegerProperty multiplierProperty = new SimpleIntegerProperty(1);
-    /**
-     * A hashset containing all the blocks that need to be cleared
-     */
-    protected HashSet<GameBlockCoordinate> blocksToBeCleared;
-    /**
-     * The number of lines to be cleared
-     */
-    protected int linesToBeCleared;
-
     /**
      * A listener for receiving notifications when the next game piece is generated.
      */
@@ -100,28 +116,24 @@ public class Game {
      */
     protected GameOverListener gameOverListener;
     /**
-     * The game piece currently being previewed as the next piece to play.
+     * The x-coordinate of the currently selected game block.
      */
-    protected GamePiece followingPiece;
+    protected int currentX = 0;
 
     /**
-     * The coordinates of the currently selected game block.
+     * The y-coordinate of the currently selected game block.
      */
-    protected Pair<Integer, Integer> currentSelectedBlock = new Pair<>(0, 0);
+    protected int currentY = 0;
 
     /**
-     * The executor service used to run the game loop.
+     * The engine used to suggest the best move
      */
-    protected ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
-    /**
-     * Temporary place-holder piece
-     */
-    protected GamePiece tempPiece;
+    protected final HintEngine hintEngine = new HintEngine();
 
     /**
-     * The scheduled task for running the game loop.
+     * The timer that runs the game loop when the time for a piece runs out, re-armed for each piece
      */
-    protected ScheduledFuture<?> loop;
+    protected final PieceTimer timer;
 
 
     /**
@@ -130,7 +142,7 @@ public class Game {
      * @return The current x-coordinate of the selected game block.
      */
     public Integer getCurrentX() {
-        return currentSelectedBlock.getKey();
+        return currentX;
     }
     /**
      * Gets the current y-coordinate of the selected game block.
@@ -138,7 +150,7 @@ public class Game {
      * @return The current y-coordinate of the selected game block.
      */
     public Integer getCurrentY() {
-        return currentSelectedBlock.getValue();
+        return currentY;
     }
 
     /**
@@ -147,7 +159,7 @@ public class Game {
      * @param X The new x-coordinate of the selected game block.
      */
     public void setCurrentX(Integer X) {
-        this.currentSelectedBlock = new Pair<>(X, getCurrentY());
+        this.currentX = X;
     }
     /**
      * Sets the current y-coordinate of the selected game block.
@@ -155,7 +167,7 @@ public class Game {
      * @param Y The new y-coordinate of the selected game block.
      */
     public void setCurrentY(Integer Y) {
-        this.currentSelectedBlock = new Pair<>(getCurrentX(), Y);
+        this.currentY = Y;
     }
 
 
@@ -176,11 +188,12 @@ public class Game {
     }
 
     /**
-     * Sets the current score to the specified value.
+     * Queues setting the score to the specified value. The score property changes once the snapshot after it is
+     * applied.
      * @param  score the new score to be set.
      */
     public void setScore(int score) {
-        this.scoreProperty.set(score);
+        actor.submit(core -> core.setScore(score));
     }
 
     /**
@@ -200,11 +213,12 @@ public class Game {
     }
 
     /**
-     * Sets the current level to the specified value.
+     * Queues setting the level to the specified value. The level property changes once the snapshot after it is
+     * applied.
      * @param level The new level to be set.
      */
     public void setLevel(int level) {
-        this.levelProperty.set(level);
+        actor.submit(core -> core.setLevel(level));
     }
 
     /**
@@ -224,11 +238,12 @@ public class Game {
     }
 
     /**
-     * Sets the current number of lives to the specified value.
+     * Queues setting the number of lives to the specified value. The lives property changes once the snapshot after it
+     * is applied.
      * @param lives the new number of lives to be set.
      */
     public void setLives(int lives) {
-        this.livesProperty.set(lives);
+        actor.submit(core -> core.setLives(lives));
     }
 
     /**
@@ -248,17 +263,18 @@ public class Game {
     }
 
     /**
-     * Sets the current multiplier value to the specified value.
+     * Queues setting the multiplier to the specified value. The multiplier property changes once the snapshot after it
+     * is applied.
      * @param multiplier the new multiplier value to be set.
      */
 
     public void setMultiplier(int multiplier) {
-        this.multiplierProperty.set(multiplier);
+        actor.submit(core -> core.setMultiplier(multiplier));
     }
 
     /**
      * Gets the current GamePiece being played
-     * @return the current (next) GamePiece to be played
+     * @return the current (next) GamePiece to be played, as of the latest snapshot
      */
     public GamePiece getCurrentPiece() {
         return currentPiece;
@@ -304,52 +320,133 @@ public class Game {
 
 
     public Game(int cols, int rows) {
-        this.cols = cols;
-        this.rows = rows;
-        //Create a new grid model to represent the game state
-        this.grid = new Grid(cols,rows);
+        this(new GameCore(cols, rows));
+    }
+
+    /**
+     * Create a new game with the specified rows and columns and a fixed seed, so the same pieces come up every time
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed the seed of the piece generator
+     */
+    public Game(int cols, int rows, long seed) {
+        this(new GameCore(cols, rows, seed));
+    }
+
+    /**
+     * Create a new game with the specified rows and columns and a fixed seed, timed by the given timer wheel. A wheel on
+     * a ManualClock lets the game be played in virtual time.
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed the seed of the piece generator
+     * @param timers the timer wheel to run the game loop on
+     */
+    public Game(int cols, int rows, long seed, TimerWheel timers) {
+        this(new GameCore(cols, rows, seed), timers);
+    }
+
+    /**
+     * Create a new game around a headless core, with a corresponding grid model to display its board. The core is
+     * handed to an actor and must not be used directly afterwards.
+     * @param core the game core
+     */
+    protected Game(GameCore core) {
+        this(core, TimerWheel.shared());
+    }
+
+    /**
+     * Create a new game around a headless core, timed by the given timer wheel
+     * @param core the game core
+     * @param timers the timer wheel to run the game loop on
+     */
+    protected Game(GameCore core, TimerWheel timers) {
+        this.timer = new PieceTimer(timers, this::gameLoop);
+        this.cols = core.getBoard().getCols();
+        this.rows = core.getBoard().getRows();
+        this.core = core;
+        this.grid = new Grid(cols, rows);
+        ActorEvents events = new ActorEvents();
+        //Set before the actor starts, so the actor's thread sees it
+        core.getBoard().setBoardListener(events);
+        this.actor = new GameActor(core, events, events);
+    }
+
+    /**
+     * Get the actor running this game
+     * @return the game actor
+     */
+    public GameActor getActor() {
+        return actor;
     }
 
     /**
-     * Start the game
+     * Start the game. The timer starts once the first pieces arrive.
      */
     public void start() {
         logger.info("Starting game");
         initialiseGame();
-        startTimer();
     }
 
     /**
      * Initialise a new game and set up anything that needs to be done at the start
      */
-    private void initialiseGame() {
-        logger.info("Initialising game");
-        //Create the initial piece
-        currentPiece = spawnPiece();
-        followingPiece = spawnPiece();
-        nextPieceListener.nextPiece(currentPiece, followingPiece);
-        tempPiece = currentPiece;
+    protected void initialiseGame() {
+        logger.info("Initialising game with seed {}", core.getSeed());
+        //Create the initial pieces on the actor's thread
+        actor.start();
         Multimedia.playFileOnce("/music/game_start.wav", "game.wav");
     }
 
+    /**
+     * Copy the blocks a command changed into the grid, as one group. Called on the JavaFX thread.
+     * @param changed the blocks that changed
+     * @param values the new value of each changed block, indexed by (x + y * cols)
+     */
+    protected void applyBlocks(CellSet changed, int[] values) {
+        if(changed.isEmpty()) return;
+        grid.beginUpdate();
+        for(int index = changed.nextIndex(0); index >= 0; index = changed.nextIndex(index + 1)) {
+            grid.set(changed.getX(index), changed.getY(index), values[index]);
+        }
+        grid.commitUpdate();
+    }
+
+    /**
+     * Copy a snapshot into the properties, and tell the scene if the pieces have changed. Called on the JavaFX thread,
+     * once the blocks changed by the same command are in the grid.
+     * @param next the snapshot to apply
+     */
+    protected void applySnapshot(GameSnapshot next) {
+        scoreProperty.set(next.getScore());
+        levelProperty.set(next.getLevel());
+        livesProperty.set(next.getLives());
+        multiplierProperty.set(next.getMultiplier());
+
+        //Rotations and swaps have no event of their own, so compare the pieces
+        boolean piecesChanged = !next.samePieces(snapshot);
+        snapshot = next;
+        if(!piecesChanged) return;
+        currentPiece = next.getCurrentPiece();
+        followingPiece = next.getFollowingPiece();
+        if(nextPieceListener != null) nextPieceListener.nextPiece(currentPiece, followingPiece);
+    }
+
+    /**
+     * Get the best move for the current and following pieces, including swapping them. Repeated calls for the same
+     * position come from the engine's cache.
+     * @return the suggested move, or null if neither piece fits anywhere
+     */
+    public Hint getHint() {
+        return hintEngine.getHint(grid, getCurrentPiece(), getFollowingPiece());
+    }
+
     /**
      * Handle what should happen when a particular block is clicked
      * @param gameBlock the block that was clicked
      */
     public void blockClicked(GameBlock gameBlock) {
-        //Get the position of this block
-        int x = gameBlock.getX();
-        int y = gameBlock.getY();
-        if(grid.canPlayPiece(currentPiece, x, y)) {
-            Multimedia.playAudio("place.wav");
-            grid.playPiece(currentPiece, x, y);
-            nextPiece();
-            afterPiece();
-            level();
-        }
-        else {
-            Multimedia.playAudio("fail.wav");
-        }
+        //Get the position of this block and try to place the current piece there
+        actor.place(gameBlock.getX(), gameBlock.getY());
     }
 
     /**
@@ -384,166 +481,43 @@ public class Game {
         return followingPiece;
     }
 
-    /**
-     * Creates a random piece
-     * @return The next piece to be played
-     */
-    protected GamePiece spawnPiece() {
-
-        //Creates a random piece from available pieces using RNG
-        int pieceInt = new Random().nextInt(GamePiece.PIECES);
-        int rotationInt = new Random().nextInt(3);
-        GamePiece newPiece = GamePiece.createPiece(pieceInt, rotationInt);
-        logger.info("Picking random piece {}", newPiece);
-        return newPiece;
-    }
-
     /**
      * his method generates the next game piece to be used in the game and returns it.
      */
     protected void nextPiece() {
-        //Sets the current piece to the following piece
-        currentPiece = followingPiece;
-        //Following piece becomes a new piece
-        followingPiece = spawnPiece();
-        //Set the nextPieceListener for the new set of pieces
-        nextPieceListener.nextPiece(currentPiece, followingPiece);
-        //Restart timer
-        resetTimer();
-        logger.info("The next piece is: {} and the following piece is {}", currentPiece, followingPiece);
+        actor.submit(GameCore::nextPiece);
     }
 
     /**
      * Check to see if any rows/columns need clearing and clears them
      */
     protected void afterPiece() {
-
-        //Hashset containing all the x and y coordinates of rows and columns that need to be cleared
-        blocksToBeCleared = new HashSet<>();
-
-        //Boolean to see if any lines have been cleared
-        Boolean resetMultiplier = true;
-
-        //Counts how many lines to be cleared so score and multiplier can be calculated
-        linesToBeCleared = 0;
-
-        //Check each column for a line
-        for(var x = 0; x < grid.getRows(); x++) {
-            var columnLineCounter = 0;
-            for(var y = 0; y < grid.getCols(); y++) {
-                if(grid.get(x,y) == 0) break;
-                columnLineCounter++;
-                if(columnLineCounter == 5) {
-                    Multimedia.playAudio("clear.wav");
-                    resetMultiplier = false;
-                    //Add one to the line to be cleared if 5 in a row
-                    linesToBeCleared++;
-                    logger.info("Clearing vertical line at x = " + (x + 1));
-
-                    //If there is a complete column, the x coordinate of the row gets added to the hashset
-                    for(var yLine = 0; yLine < grid.getCols(); yLine++) {
-                        GameBlockCoordinate coordinate = new GameBlockCoordinate(x,yLine);
-                        blocksToBeCleared.add(coordinate);
-                        //Add blocks to hashset
-                    }
-                }
-            }
-        }
-
-        //Check each row for a line
-        for(var y = 0; y < grid.getCols(); y++) {
-            var rowLineCounter = 0;
-            for(var x = 0; x < grid.getRows(); x++) {
-                if(grid.get(x,y) == 0) break;
-                rowLineCounter++;
-                if(rowLineCounter == 5) {
-                    Multimedia.playAudio("clear.wav");
-                    resetMultiplier = false;
-                    linesToBeCleared++;
-                    logger.info("Clearing horizontal line at y = " + (y + 1));
-
-                    //If there is a complete row, the y coordinate of the row gets added to the hashset
-                    for (var xLine = 0; xLine < grid.getCols(); xLine++) {
-                        GameBlockCoordinate coordinate = new GameBlockCoordinate(xLine, y);
-                        blocksToBeCleared.add(coordinate);
-                    }
-                }
-            }
-        }
-        score(linesToBeCleared, blocksToBeCleared.size());
-        //Calculate new score
-        multiplier(resetMultiplier);
-        //See if multiplier needs to reset
-        lineClearedListener.lineCleared(blocksToBeCleared);
-        //Handle the line-cleared event
-        //Removes the lines in the hashset
-        for(GameBlockCoordinate coordinate : blocksToBeCleared) {
-            grid.set(coordinate.getX(), coordinate.getY(), 0);
-        }
-    }
-
-    /**
-     * Updates the score depending on how many blocks and lines were cleared
-     * @param lines The number of lines cleared by the last piece
-     * @param blocks The number of blocks cleared by the last peice
-     */
-    protected void score(int lines, int blocks) {
-        scoreProperty.set(scoreProperty.get() + (lines * blocks * 10 * multiplierProperty.get()));
+        actor.submit(GameCore::clearLines);
     }
 
     /**
-     * Calculates what the multiplier is
-     * @param resetMultiplier local variable in afterPiece that informs of whether a line had been cleared previously
+     * Rotates the currentPiece. The piece boards are updated once the rotation has been applied.
      */
-    protected void multiplier(Boolean resetMultiplier) {
-        //If there are no lines cleared, reset the multiplier
-        if(resetMultiplier) {
-            this.multiplierProperty.set(1);
-            logger.info("Resetting multiplier to 1");
-        }
-        else {
-            //Otherwise add one to the multiplier
-            multiplierProperty.set(multiplierProperty.get() + 1);
-            logger.info("New multiplier is {}", multiplierProperty.get());
-        }
-    }
-
-    /**
-     * Sets number of levels according to the score
-     */
-    protected void level() {
-        //Play sound for each new level
-        int newLevel = (int) Math.floor(scoreProperty.get() / 1000.0);
-        if(newLevel != getLevel()) {
-            Multimedia.playAudio("level.wav");
-        }
-        levelProperty.set(newLevel);
+    public void rotatePiece() {
+        //Rotates the piece
+        actor.rotate(1);
     }
 
     /**
-     * Rotates the currentPiece
-     * @return the rotated currentPiece
+     * Rotates the currentPiece the given number of quarter turns. The piece boards are updated once the rotation has
+     * been applied.
+     * @param rotations number of rotations
      */
-    public GamePiece rotatePiece() {
-        //Rotates the piece
-        this.currentPiece.rotate();
-        return currentPiece;
+    public void rotatePiece(int rotations) {
+        actor.rotate(rotations);
     }
 
     /**
      * Swaps the current piece with the followingPiece
      */
     public void swapCurrentPiece() {
-        logger.info("Swapping {} for {}", currentPiece, followingPiece);
-        //Set swapPiece to currentPiece
-        GamePiece swapPiece = currentPiece;
-        //Set currentPiece to the followingPiece
-        currentPiece = followingPiece;
-        //Set followingPiece to currentPiece
-        followingPiece = swapPiece;
-        //Set tempPiece to currentPiee
-        tempPiece = currentPiece;
-        Multimedia.playAudio("transition.wav");
+        logger.info("Swapping {} for {}", getCurrentPiece(), getFollowingPiece());
+        actor.swap();
     }
 
     /**
@@ -551,51 +525,388 @@ public class Game {
      * @return the lowest value bout of the delay and 250 ms
      */
     protected int getTimerDelay() {
-        //Calculate the delay
-        int delay = 12000 - (getLevel() * 750);
-        return Math.max(delay, 250);
+        return GameCore.getTimerDelay(levelProperty.get());
     }
 
     /**
-     * Starts the executor to carry out gameLoop at intervals of time
+     * Arms the timer to carry out gameLoop once the time for this piece runs out
      */
     protected void startTimer() {
         logger.info("Starting Timer with {} seconds of time ", getTimerDelay()/1000);
-        //Starts the loop so that the gameloop can run
-        loop = executor.scheduleAtFixedRate(this::gameLoop, getTimerDelay(), getTimerDelay(), TimeUnit.MILLISECONDS);
-        gameLoopListener.gameLoop(getTimerDelay());
+        timer.arm(levelProperty.get(), snapshot == null ? 0 : snapshot.getPieceGeneration());
+        if(gameLoopListener != null) gameLoopListener.gameLoop(getTimerDelay());
     }
 
     /**
      * Resets the timer
      */
     protected void resetTimer() {
+        //Events can still arrive from the actor after the game has been stopped
+        if(timer.isStopped()) return;
         logger.info("Resetting timer with {} seconds of time", getTimerDelay()/1000);
-        loop.cancel(false);
         startTimer();
     }
 
     /**
-     * Stops the timer from running
+     * Stops the timer and the actor from running
      */
     public void stopTimer() {
         logger.info("Shutting down timer");
-        executor.shutdownNow();
+        timer.stop();
+        actor.stop();
         Multimedia.stopMusic();
     }
 
     /**
      * The gameLoop is the logic behind what happens if the player fails to place a piece
-     * on time. For example, a reduction in lives
+     * on time. For example, a reduction in lives. Runs on the timer wheel's thread, so it only queues the timeout,
+     * which the actor drops if the piece has been placed in the meantime.
+     * @param generation the generation of the piece that ran out of time
      */
-    protected void gameLoop() {
+    protected void gameLoop(long generation) {
         // If the piece is still the same after the Timer runs out
-        logger.info("Piece has not changed, deduction 1 life");
-        setLives(getLives() - 1);
-        setMultiplier(1);
-        Multimedia.playAudio("lifelose.wav");
-        gameOverListener.gameOver(getLives());
-        nextPiece();
+        logger.info("Piece {} has run out of time, deduction 1 life", generation);
+        actor.timeout(generation);
+    }
+
+    /**
+     * Play the placement sound when the core places a piece
+     * @param piece the piece that was placed
+     * @param x the x coordinate of the centre of the piece
+     * @param y the y coordinate of the centre of the piece
+     */
+    @Override
+    public void piecePlaced(GamePiece piece, int x, int y) {
+        logger.info("Playing the {} piece  at ({},{})", piece, x + 1, y + 1);
+        Multimedia.playAudio("place.wav");
+    }
+
+    /**
+     * Play the failure sound when the core cannot place a piece
+     * @param piece the piece that could not be placed
+     * @param x the x coordinate of the centre of the piece
+     * @param y the y coordinate of the centre of the piece
+     */
+    @Override
+    public void placementFailed(GamePiece piece, int x, int y) {
+        logger.info("Unable to place piece {} at ({}, {})", piece, x, y);
+        Multimedia.playAudio("fail.wav");
+    }
+
+    /**
+     * Restart the timer for the new piece. The scene is told about the pieces when the snapshot is applied.
+     * @param nextPiece the next piece to be played
+     * @param followingPiece the following piece afterwards
+     */
+    @Override
+    public void nextPiece(GamePiece nextPiece, GamePiece followingPiece) {
+        logger.info("The next piece is: {} and the following piece is {}", nextPiece, followingPiece);
         resetTimer();
     }
+
+    /**
+     * Play the swap sound when the pieces are swapped
+     * @param nextPiece the next piece to be played
+     * @param followingPiece the following piece afterwards
+     */
+    @Override
+    public void piecesSwapped(GamePiece nextPiece, GamePiece followingPiece) {
+        Multimedia.playAudio("transition.wav");
+    }
+
+    /**
+     * Play the clear sound for each line and pass the cleared blocks on to the scene
+     * @param lines the number of lines cleared
+     * @param blocksToBeCleared the blocks to be cleared
+     */
+    @Override
+    public void linesCleared(int lines, CellSet blocksToBeCleared) {
+        for(var line = 0; line < lines; line++) {
+            Multimedia.playAudio("clear.wav");
+        }
+        if(lines > 0) logger.info("Clearing {} lines", lines);
+        if(lineClearedListener != null) lineClearedListener.lineCleared(blocksToBeCleared);
+    }
+
+    /**
+     * Log the new multiplier
+     * @param multiplier the new multiplier
+     */
+    @Override
+    public void multiplierChanged(int multiplier) {
+        logger.info("New multiplier is {}", multiplier);
+    }
+
+    /**
+     * Play the level up sound
+     * @param level the new level
+     */
+    @Override
+    public void levelChanged(int level) {
+        Multimedia.playAudio("level.wav");
+    }
+
+    /**
+     * Play the life lost sound and tell the scene in case the game is over
+     * @param lives the number of lives remaining
+     */
+    @Override
+    public void lifeLost(int lives) {
+        Multimedia.playAudio("lifelose.wav");
+        if(gameOverListener != null) gameOverListener.gameOver(lives);
+    }
+
+    /**
+     * Receives the core's events and snapshots on the actor's thread. Events are recorded into an EventBatch and held
+     * until the command that caused them has finished, then handed to the JavaFX thread together with its snapshot,
+     * so the grid and properties are already up to date when the Game handles them.
+     *
+     * Batches are handed back once the JavaFX thread has run them and reused, so a move allocates no lists, lambdas
+     * or copies of the cleared blocks.
+     */
+    private class ActorEvents implements GameEventListener, SnapshotListener, BoardListener {
+
+        /**
+         * The most batches kept for reuse. More are only needed if the JavaFX thread falls behind.
+         */
+        private static final int SPARE_BATCHES = 4;
+
+        /**
+         * Batches the JavaFX thread has finished with
+         */
+        private final ArrayBlockingQueue<EventBatch> spare = new ArrayBlockingQueue<>(SPARE_BATCHES);
+
+        /**
+         * The batch for the command being run, only touched on the actor's thread
+         */
+        private EventBatch pending = new EventBatch();
+
+        /**
+         * Hand a snapshot and the events that led to it over to the JavaFX thread
+         * @param next the state of the game after the last command
+         */
+        @Override
+        public void snapshotPublished(GameSnapshot next) {
+            EventBatch events = pending;
+            events.snapshot = next;
+            pending = spare.poll();
+            if(pending == null) pending = new EventBatch();
+            Platform.runLater(events);
+        }
+
+        /**
+         * Record the blocks changed on the core's board, with their new values, coalesced over the whole command
+         * @param changed the blocks that changed
+         */
+        @Override
+        public void boardChanged(CellSet changed) {
+            Board board = core.getBoard();
+            for(int index = changed.nextIndex(0); index >= 0; index = changed.nextIndex(index + 1)) {
+                pending.changed.add(index);
+                pending.values[index] = board.get(changed.getX(index), changed.getY(index));
+            }
+        }
+
+        /**
+         * Queue a piece being placed
+         * @param piece the piece that was placed
+         * @param x the x coordinate of the centre of the piece
+         * @param y the y coordinate of the centre of the piece
+         */
+        @Override
+        public void piecePlaced(GamePiece piece, int x, int y) {
+            //The placed piece leaves play and is never changed again, so it needs no copy
+            pending.add(EventBatch.PLACED, x, y, piece);
+        }
+
+        /**
+         * Queue a piece failing to be placed
+         * @param piece the piece that could not be placed
+         * @param x the x coordinate of the centre of the piece
+         * @param y the y coordinate of the centre of the piece
+         */
+        @Override
+        public void placementFailed(GamePiece piece, int x, int y) {
+            //The piece stays in play, so it is taken from the snapshot
+            pending.add(EventBatch.FAILED, x, y, null);
+        }
+
+        /**
+         * Queue the next piece being brought in
+         * @param nextPiece the next piece to be played
+         * @param followingPiece the following piece afterwards
+         */
+        @Override
+        public void nextPiece(GamePiece nextPiece, GamePiece followingPiece) {
+            pending.add(EventBatch.NEXT, 0, 0, null);
+        }
+
+        /**
+         * Queue the pieces being swapped
+         * @param nextPiece the next piece to be played
+         * @param followingPiece the following piece afterwards
+         */
+        @Override
+        public void piecesSwapped(GamePiece nextPiece, GamePiece followingPiece) {
+            pending.add(EventBatch.SWAPPED, 0, 0, null);
+        }
+
+        /**
+         * Queue lines being cleared
+         * @param lines the number of lines cleared
+         * @param blocksToBeCleared the blocks to be cleared
+         */
+        @Override
+        public void linesCleared(int lines, CellSet blocksToBeCleared) {
+            //The core reuses its set, so keep the blocks in the batch's own set, if there are any
+            if(lines > 0) pending.cleared.addAll(blocksToBeCleared);
+            pending.add(EventBatch.CLEARED, lines, 0, null);
+        }
+
+        /**
+         * Queue the score changing
+         * @param score the new score
+         */
+        @Override
+        public void scoreChanged(int score) {
+            pending.add(EventBatch.SCORE, score, 0, null);
+        }
+
+        /**
+         * Queue the multiplier changing
+         * @param multiplier the new multiplier
+         */
+        @Override
+        public void multiplierChanged(int multiplier) {
+            pending.add(EventBatch.MULTIPLIER, multiplier, 0, null);
+        }
+
+        /**
+         * Queue the level changing
+         * @param level the new level
+         */
+        @Override
+        public void levelChanged(int level) {
+            pending.add(EventBatch.LEVEL, level, 0, null);
+        }
+
+        /**
+         * Queue a life being lost, logging the moves if the game is over
+         * @param lives the number of lives remaining
+         */
+        @Override
+        public void lifeLost(int lives) {
+            //Log the moves so the game can be replayed with GameReplay
+            if(core.isGameOver() && core.getMoveLog() != null) {
+                logger.info("Game over, move log: {}", core.getMoveLog().encode());
+            }
+            pending.add(EventBatch.LIFE, lives, 0, null);
+        }
+
+        /**
+         * The events from one command and the snapshot taken after it. Filled on the actor's thread, then run and
+         * handed back for reuse on the JavaFX thread.
+         */
+        private class EventBatch implements Runnable {
+
+            /**
+             * The kinds of event
+             */
+            private static final int PLACED = 0, FAILED = 1, NEXT = 2, SWAPPED = 3, CLEARED = 4, SCORE = 5,
+                MULTIPLIER = 6, LEVEL = 7, LIFE = 8;
+
+            /**
+             * The number of ints recorded for each event: its kind and up to two values
+             */
+            private static final int STRIDE = 3;
+
+            /**
+             * The events, STRIDE ints each
+             */
+            private int[] events = new int[STRIDE * 8];
+
+            /**
+             * The placed piece for each event, or null
+             */
+            private GamePiece[] pieces = new GamePiece[8];
+
+            /**
+             * The number of events recorded
+             */
+            private int size;
+
+            /**
+             * The blocks cleared by the command
+             */
+            private final CellSet cleared = new CellSet(cols, rows);
+
+            /**
+             * The blocks changed by the command
+             */
+            private final CellSet changed = new CellSet(cols, rows);
+
+            /**
+             * The new value of each changed block, indexed by (x + y * cols). Only the changed blocks are meaningful.
+             */
+            private final int[] values = new int[cols * rows];
+
+            /**
+             * The snapshot taken after the command
+             */
+            private GameSnapshot snapshot;
+
+            /**
+             * Record an event, growing the arrays if needed
+             * @param kind the kind of event
+             * @param first its first value
+             * @param second its second value
+             * @param piece the piece it needs kept, or null
+             */
+            private void add(int kind, int first, int second, GamePiece piece) {
+                if(size == pieces.length) {
+                    events = Arrays.copyOf(events, events.length * 2);
+                    pieces = Arrays.copyOf(pieces, pieces.length * 2);
+                }
+                events[size * STRIDE] = kind;
+                events[size * STRIDE + 1] = first;
+                events[size * STRIDE + 2] = second;
+                pieces[size] = piece;
+                size++;
+            }
+
+            /**
+             * Apply the changed blocks and the snapshot and handle the events in order, then hand the batch back for
+             * reuse
+             */
+            @Override
+            public void run() {
+                applyBlocks(changed, values);
+                applySnapshot(snapshot);
+                try {
+                    for(var i = 0; i < size; i++) {
+                        int first = events[i * STRIDE + 1];
+                        int second = events[i * STRIDE + 2];
+                        switch (events[i * STRIDE]) {
+                            case PLACED -> Game.this.piecePlaced(pieces[i], first, second);
+                            case FAILED -> Game.this.placementFailed(currentPiece, first, second);
+                            case NEXT -> Game.this.nextPiece(currentPiece, followingPiece);
+                            case SWAPPED -> Game.this.piecesSwapped(currentPiece, followingPiece);
+                            case CLEARED -> Game.this.linesCleared(first, cleared);
+                            case SCORE -> Game.this.scoreChanged(first);
+                            case MULTIPLIER -> Game.this.multiplierChanged(first);
+                            case LEVEL -> Game.this.levelChanged(first);
+                            case LIFE -> Game.this.lifeLost(first);
+                        }
+                    }
+                } finally {
+                    Arrays.fill(pieces, 0, size, null);
+                    size = 0;
+                    cleared.clear();
+                    changed.clear();
+                    snapshot = null;
+                    spare.offer(this);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,172 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.event.GameEventListener;
+import uk.ac.soton.comp1206.event.SnapshotListener;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * The GameActor owns a GameCore and is the only thing allowed to change it. Commands such as placing, rotating,
+ * swapping and timing out are put on a lock-free queue from any thread (the JavaFX thread for input, the timer thread
+ * for timeouts) and run one at a time, in the order they arrived, on the actor's own thread.
+ *
+ * The core's events are passed to the GameEventListener on the actor's thread as they happen. After each command an
+ * immutable GameSnapshot is published to the SnapshotListener, so the UI never reads the core directly.
+ */
+public class GameActor {
+
+    /**
+     * Logger for keeping track of events
+     */
+    private static final Logger logger = LogManager.getLogger(GameActor.class);
+
+    /**
+     * The game owned by this actor
+     */
+    private final GameCore core;
+
+    /**
+     * Commands waiting to run
+     */
+    private final ConcurrentLinkedQueue<Consumer<GameCore>> commands = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The thread commands run on
+     */
+    private final Thread thread;
+
+    /**
+     * The listener told about each new snapshot
+     */
+    private final SnapshotListener snapshotListener;
+
+    /**
+     * Whether the actor should keep running
+     */
+    private volatile boolean running = true;
+
+    /**
+     * The most recent snapshot, or null before the first command has run
+     */
+    private volatile GameSnapshot snapshot;
+
+    /**
+     * The number of commands run
+     */
+    private long version;
+
+    /**
+     * Create a new actor for a game. Commands can be submitted straight away, but only run once the actor is started.
+     * @param core the game, which must not be used directly from now on
+     * @param listener the listener told about the game's events on the actor's thread
+     * @param snapshotListener the listener told about each new snapshot on the actor's thread
+     */
+    public GameActor(GameCore core, GameEventListener listener, SnapshotListener snapshotListener) {
+        this.core = core;
+        this.snapshotListener = snapshotListener;
+        core.setListener(listener);
+        thread = new Thread(this::run, "Game Actor");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Start the actor's thread and the game
+     */
+    public void start() {
+        logger.info("Starting game actor");
+        submit(GameCore::start);
+        thread.start();
+    }
+
+    /**
+     * Stop the actor once the command being run has finished. Commands still waiting are dropped.
+     */
+    public void stop() {
+        logger.info("Stopping game actor");
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Queue a command to be run on the actor's thread. Safe to call from any thread.
+     * @param command the command, given the core to act on
+     */
+    public void submit(Consumer<GameCore> command) {
+        commands.offer(command);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Queue placing the current piece
+     * @param x the x coordinate of the centre of the piece
+     * @param y the y coordinate of the centre of the piece
+     */
+    public void place(int x, int y) {
+        submit(core -> core.place(x, y));
+    }
+
+    /**
+     * Queue rotating the current piece
+     * @param rotations number of quarter turns
+     */
+    public void rotate(int rotations) {
+        submit(core -> core.rotate(rotations));
+    }
+
+    /**
+     * Queue swapping the current and following pieces
+     */
+    public void swap() {
+        submit(GameCore::swap);
+    }
+
+    /**
+     * Queue the timer running out for a piece. By the time it runs, the piece may already have been placed by a
+     * command queued ahead of it, so it is dropped unless that piece is still in play.
+     * @param generation the generation of the piece the timer was armed for
+     */
+    public void timeout(long generation) {
+        submit(core -> {
+            if(core.getPieceGeneration() != generation) {
+                logger.debug("Dropping timeout for piece {}, piece {} is in play", generation,
+                    core.getPieceGeneration());
+                return;
+            }
+            core.timeout();
+        });
+    }
+
+    /**
+     * Get the most recent snapshot
+     * @return the snapshot, or null before the first command has run
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Run commands one at a time until stopped, publishing a snapshot after each
+     */
+    private void run() {
+        while(running) {
+            Consumer<GameCore> command = commands.poll();
+            if(command == null) {
+                //Wait for submit() to unpark this thread
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                command.accept(core);
+            } catch (RuntimeException e) {
+                logger.error("Game command failed", e);
+            }
+            snapshot = new GameSnapshot(core, ++version);
+            if(snapshotListener != null) snapshotListener.snapshotPublished(snapshot);
+        }
+        logger.info("Game actor stopped");
+    }
+}
@@ -0,0 +1,476 @@
+package uk.ac.soton.comp1206.game;
+
+import uk.ac.soton.comp1206.event.GameEventListener;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The GameCore holds the rules and state of a game of TetrECS as plain Java: primitive score, level, lives and
+ * multiplier fields, a Board, and the current and following pieces. It has no JavaFX, timer or audio dependencies, so
+ * it can run headlessly in batch jobs and tests.
+ *
+ * Everything that happens is reported through a GameEventListener. The Game class adapts a GameCore for the UI by
+ * mirroring these events into properties, sounds and the existing listeners.
+ *
+ * Every random choice comes from a single generator seeded when the core is created, and every move is recorded in a
+ * MoveLog, so a game can be reproduced exactly with GameReplay.
+ */
+public class GameCore {
+
+    /**
+     * A listener that ignores every event, used until a real one is set
+     */
+    private static final GameEventListener NO_LISTENER = new GameEventListener() {};
+
+    /**
+     * The board the game is played on
+     */
+    protected final Board board;
+
+    /**
+     * The seed of the piece generator
+     */
+    private final long seed;
+
+    /**
+     * The seeded generator used for every random choice in the game
+     */
+    protected final Random random;
+
+    /**
+     * The record of every move made, or null if moves are not being recorded
+     */
+    private MoveLog moveLog;
+
+    /**
+     * The current piece to be played
+     */
+    protected GamePiece currentPiece;
+
+    /**
+     * The piece after the current piece
+     */
+    protected GamePiece followingPiece;
+
+    /**
+     * The current score
+     */
+    protected int score = 0;
+
+    /**
+     * The current level
+     */
+    protected int level = 0;
+
+    /**
+     * The current number of lives
+     */
+    protected int lives = 3;
+
+    /**
+     * The current multiplier for lines cleared
+     */
+    protected int multiplier = 1;
+
+    /**
+     * The blocks in the lines being cleared, reused for every clear
+     */
+    private final CellSet cleared;
+
+    /**
+     * Scratch space for the columns found to be full when clearing lines
+     */
+    private final int[] fullColumns;
+
+    /**
+     * Scratch space for the rows found to be full when clearing lines
+     */
+    private final int[] fullRows;
+
+    /**
+     * The listener told about everything that happens in the game
+     */
+    private GameEventListener listener = NO_LISTENER;
+
+    /**
+     * The number of pieces brought into play so far, which tells each piece apart from the ones before it
+     */
+    private long pieceGeneration = 0;
+
+    /**
+     * Create a new game core with an empty board of the specified size and a random seed
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public GameCore(int cols, int rows) {
+        this(new Board(cols, rows));
+    }
+
+    /**
+     * Create a new game core with an empty board of the specified size and a fixed seed
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed the seed of the piece generator
+     */
+    public GameCore(int cols, int rows, long seed) {
+        this(new Board(cols, rows), seed);
+    }
+
+    /**
+     * Create a new game core playing on the given board with a random seed
+     * @param board the board to play on
+     */
+    public GameCore(Board board) {
+        this(board, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Create a new game core playing on the given board with a fixed seed
+     * @param board the board to play on
+     * @param seed the seed of the piece generator
+     */
+    public GameCore(Board board, long seed) {
+        this.board = board;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.moveLog = new MoveLog(seed, board.getCols(), board.getRows());
+        this.cleared = new CellSet(board.getCols(), board.getRows());
+        this.fullColumns = new int[board.getCols()];
+        this.fullRows = new int[board.getRows()];
+    }
+
+    /**
+     * Set the listener to be told about everything that happens in the game
+     * @param listener the listener to be set, or null for none
+     */
+    public void setListener(GameEventListener listener) {
+        this.listener = listener == null ? NO_LISTENER : listener;
+    }
+
+    /**
+     * Start the game by generating the first two pieces
+     */
+    public void start() {
+        currentPiece = spawnPiece();
+        followingPiece = spawnPiece();
+        pieceGeneration++;
+        listener.nextPiece(currentPiece, followingPiece);
+    }
+
+    /**
+     * Try to place the current piece centred at the given coordinates. If it fits, it is played, the next piece is
+     * brought in, any completed lines are cleared and the score and level are updated.
+     * @param x the x coordinate of the centre of the piece
+     * @param y the y coordinate of the centre of the piece
+     * @return true if the piece was placed
+     */
+    public boolean place(int x, int y) {
+        if(!board.canPlayPiece(currentPiece, x, y)) {
+            listener.placementFailed(currentPiece, x, y);
+            return false;
+        }
+        listener.piecePlaced(currentPiece, x, y);
+        if(moveLog != null) moveLog.place(x, y);
+        //Group the placement and any line clears into one change to the board
+        board.beginUpdate();
+        try {
+            board.playPiece(currentPiece, x, y);
+            nextPiece();
+            clearLines();
+        } finally {
+            board.commitUpdate();
+        }
+        updateLevel();
+        return true;
+    }
+
+    /**
+     * Check whether the current piece fits centred at the given coordinates
+     * @param x the x coordinate of the centre of the piece
+     * @param y the y coordinate of the centre of the piece
+     * @return true if the piece can be played there
+     */
+    public boolean canPlace(int x, int y) {
+        return board.canPlayPiece(currentPiece, x, y);
+    }
+
+    /**
+     * Handle the timer running out before a piece was placed: lose a life, reset the multiplier and move on to the
+     * next piece
+     */
+    public void timeout() {
+        if(moveLog != null) moveLog.timeout();
+        lives--;
+        setMultiplier(1);
+        listener.lifeLost(lives);
+        nextPiece();
+    }
+
+    /**
+     * Creates a random piece
+     * @return The next piece to be played
+     */
+    protected GamePiece spawnPiece() {
+        //Creates a random piece from available pieces using RNG
+        int pieceInt = random.nextInt(GamePiece.PIECES);
+        int rotationInt = random.nextInt(3);
+        return GamePiece.createPiece(pieceInt, rotationInt, random);
+    }
+
+    /**
+     * Move the following piece into play and generate a new following piece
+     */
+    public void nextPiece() {
+        currentPiece = followingPiece;
+        followingPiece = spawnPiece();
+        pieceGeneration++;
+        listener.nextPiece(currentPiece, followingPiece);
+    }
+
+    /**
+     * Replace the current and following pieces, for games where pieces come from elsewhere such as a server
+     * @param currentPiece the new current piece
+     * @param followingPiece the new following piece
+     */
+    public void setPieces(GamePiece currentPiece, GamePiece followingPiece) {
+        if(moveLog != null) moveLog.pieces(currentPiece, followingPiece);
+        this.currentPiece = currentPiece;
+        this.followingPiece = followingPiece;
+        pieceGeneration++;
+        listener.nextPiece(currentPiece, followingPiece);
+    }
+
+    /**
+     * Check to see if any rows/columns need clearing and clears them, updating the score and multiplier
+     * @return the number of lines cleared
+     */
+    public int clearLines() {
+        //Set containing all the blocks of rows and columns that need to be cleared
+        cleared.clear();
+        int columns = 0;
+        int rows = 0;
+
+        //Only the columns and rows the last piece touched can have been completed by it. Find them all before
+        //clearing any, since clearing a row stops the columns crossing it from being full.
+        for(var x = board.getTouchedMinX(); x <= board.getTouchedMaxX(); x++) {
+            if(!board.isColumnFull(x)) continue;
+            fullColumns[columns++] = x;
+            for(var y = 0; y < board.getRows(); y++) {
+                cleared.add(x, y);
+            }
+        }
+        for(var y = board.getTouchedMinY(); y <= board.getTouchedMaxY(); y++) {
+            if(!board.isRowFull(y)) continue;
+            fullRows[rows++] = y;
+            for(var x = 0; x < board.getCols(); x++) {
+                cleared.add(x, y);
+            }
+        }
+        int lines = columns + rows;
+
+        //Calculate new score and see if the multiplier needs to reset
+        score(lines, cleared.size());
+        setMultiplier(lines == 0 ? 1 : multiplier + 1);
+        listener.linesCleared(lines, cleared);
+
+        //Removes the completed lines
+        for(var i = 0; i < columns; i++) {
+            board.clearColumn(fullColumns[i]);
+        }
+        for(var i = 0; i < rows; i++) {
+            board.clearRow(fullRows[i]);
+        }
+        return lines;
+    }
+
+    /**
+     * Updates the score depending on how many blocks and lines were cleared
+     * @param lines The number of lines cleared by the last piece
+     * @param blocks The number of blocks cleared by the last piece
+     */
+    protected void score(int lines, int blocks) {
+        setScore(score + lines * blocks * 10 * multiplier);
+    }
+
+    /**
+     * Sets the level according to the score
+     */
+    public void updateLevel() {
+        setLevel(score / 1000);
+    }
+
+    /**
+     * Rotates the current piece the given number of quarter turns
+     * @param rotations number of rotations
+     * @return the rotated current piece
+     */
+    public GamePiece rotate(int rotations) {
+        if(moveLog != null) moveLog.rotate(rotations);
+        currentPiece.rotate(rotations);
+        return currentPiece;
+    }
+
+    /**
+     * Swaps the current piece with the following piece
+     */
+    public void swap() {
+        if(moveLog != null) moveLog.swap();
+        GamePiece swapPiece = currentPiece;
+        currentPiece = followingPiece;
+        followingPiece = swapPiece;
+        listener.piecesSwapped(currentPiece, followingPiece);
+    }
+
+    /**
+     * Gets the time allowed to place the current piece at the current level
+     * @return the delay in milliseconds, never less than 250
+     */
+    public int getTimerDelay() {
+        return getTimerDelay(level);
+    }
+
+    /**
+     * Gets the time allowed to place a piece at a given level
+     * @param level the level
+     * @return the delay in milliseconds, never less than 250
+     */
+    public static int getTimerDelay(int level) {
+        int delay = 12000 - (level * 750);
+        return Math.max(delay, 250);
+    }
+
+    /**
+     * Get the seed of the piece generator
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the record of every move made so far
+     * @return the move log, or null if moves are not being recorded
+     */
+    public MoveLog getMoveLog() {
+        return moveLog;
+    }
+
+    /**
+     * Set where moves are recorded
+     * @param moveLog the log to record into, or null to stop recording
+     */
+    public void setMoveLog(MoveLog moveLog) {
+        this.moveLog = moveLog;
+    }
+
+    /**
+     * Get the board the game is played on
+     * @return the board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Get the current piece to be played
+     * @return the current piece
+     */
+    public GamePiece getCurrentPiece() {
+        return currentPiece;
+    }
+
+    /**
+     * Get the piece after the current piece
+     * @return the following piece
+     */
+    public GamePiece getFollowingPiece() {
+        return followingPiece;
+    }
+
+    /**
+     * Get the current score
+     * @return score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Set the score
+     * @param score the new score
+     */
+    public void setScore(int score) {
+        if(this.score == score) return;
+        this.score = score;
+        listener.scoreChanged(score);
+    }
+
+    /**
+     * Get the current level
+     * @return level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Set the level
+     * @param level the new level
+     */
+    public void setLevel(int level) {
+        if(this.level == level) return;
+        this.level = level;
+        listener.levelChanged(level);
+    }
+
+    /**
+     * Get the current number of lives
+     * @return lives
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Set the number of lives
+     * @param lives the new number of lives
+     */
+    public void setLives(int lives) {
+        this.lives = lives;
+    }
+
+    /**
+     * Get the generation of the current piece, which goes up each time a new piece is brought into play
+     * @return the piece generation
+     */
+    public long getPieceGeneration() {
+        return pieceGeneration;
+    }
+
+    /**
+     * Get the current multiplier
+     * @return multiplier
+     */
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Set the multiplier
+     * @param multiplier the new multiplier
+     */
+    public void setMultiplier(int multiplier) {
+        if(this.multiplier == multiplier) return;
+        this.multiplier = multiplier;
+        listener.multiplierChanged(multiplier);
+    }
+
+    /**
+     * Check whether the game has ended
+     * @return true once lives have gone below 0
+     */
+    public boolean isGameOver() {
+        return lives < 0;
+    }
+}
@@ -5,6 +5,9 @@ import java.util.Random;
 /**
  * Instances of GamePiece Represents the model of a specific Game Piece with it's block makeup.
  *
+ * A GamePiece is a lightweight handle made up of a piece number, a rotation and a colour value. The shape of each
+ * rotation comes from the precomputed PieceCatalogue, so rotating a piece only changes an index.
+ *
  * The GamePiece class also contains a factory for producing a GamePiece of a particular shape, as specified by it's
  * number.
  */
@@ -16,19 +19,24 @@ public class GamePiece {
     public static final int PIECES = 15;
 
     /**
-     * The 2D grid representation of the shape of this piece
+     * The piece number, used to look up the shape in the PieceCatalogue
      */
-    private int[][] blocks;
+    private final int piece;
 
     /**
-     * The value of this piece
+     * The number of quarter turns this piece has been rotated by, from 0 to 3
      */
-    private final int value;
+    private int rotation;
 
     /**
-     * The name of this piece
+     * The shape of the current rotation of this piece
      */
-    private final String name;
+    private PieceShape shape;
+
+    /**
+     * The value of this piece
+     */
+    private final int value;
 
     private static Random random = new Random();
 
@@ -41,103 +49,7 @@ public class GamePiece {
      * @return the created GamePiece
      */
     public static GamePiece createPiece(int piece) {
-        switch (piece) {
-
-            //Dot
-            case 0 -> {
-                int[][] blocks = {{0, 0, 0}, {0, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Dot", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //Line
-            case 1 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {0, 0, 0}};
-                return new GamePiece("Line", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //C
-            case 3 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {1, 0, 1}};
-                return new GamePiece("C", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //Plus
-            case 2 -> {
-                int[][] blocks = {{0, 1, 0}, {1, 1, 1}, {0, 1, 0}};
-                return new GamePiece("Plus", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-
-
-            //Square
-            case 4 -> {
-                int[][] blocks = {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Square", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //L
-            case 5 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {0, 0, 1}};
-                return new GamePiece("L", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //J
-            case 6 -> {
-                int[][] blocks = {{0, 0, 1}, {1, 1, 1}, {0, 0, 0}};
-                return new GamePiece("J", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //S
-            case 7 -> {
-                int[][] blocks = {{0, 0, 0}, {0, 1, 1}, {1, 1, 0}};
-                return new GamePiece("S", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //Z
-            case 8 -> {
-                int[][] blocks = {{1, 1, 0}, {0, 1, 1}, {0, 0, 0}};
-                return new GamePiece("Z", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //T
-            case 9 -> {
-                int[][] blocks = {{1, 0, 0}, {1, 1, 0}, {1, 0, 0}};
-                return new GamePiece("T", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-            //X
-            case 10 -> {
-                int[][] blocks = {{1, 0, 1}, {0, 1, 0}, {1, 0, 1}};
-                return new GamePiece("X", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //Corner
-            case 11 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 0}, {1, 0, 0}};
-                return new GamePiece("Corner", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //Inverse Corner
-            case 12 -> {
-                int[][] blocks = {{1, 0, 0}, {1, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Inverse Corner", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //Diagonal
-            case 13 -> {
-                int[][] blocks = {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
-                return new GamePiece("Diagonal", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-            //Double
-            case 14 -> {
-                int[][] blocks = {{0, 1, 0}, {0, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Double", blocks, random.nextInt(upperBound-lowerBound) + lowerBound);
-            }
-
-        }
-
-        //Not a valid piece number
-        throw new IndexOutOfBoundsException("No such piece: " + piece);
+        return createPiece(piece, 0);
     }
 
     /**
@@ -147,31 +59,54 @@ public class GamePiece {
      * @return the created GamePiece
      */
     public static GamePiece createPiece(int piece, int rotation) {
-        var newPiece = createPiece(piece);
+        return createPiece(piece, rotation, random);
+    }
 
-        newPiece.rotate(rotation);
-        return newPiece;
+    /**
+     * Create a new GamePiece of the specified piece number and rotation, taking its colour from the given generator so
+     * that a seeded game always produces the same pieces
+     * @param piece piece number
+     * @param rotation number of times to rotate
+     * @param random the generator to pick the colour with
+     * @return the created GamePiece
+     */
+    public static GamePiece createPiece(int piece, int rotation, Random random) {
+        return createPiece(piece, rotation, random.nextInt(upperBound-lowerBound) + lowerBound);
+    }
+
+    /**
+     * Create a new GamePiece of the specified piece number, rotation and value
+     * @param piece piece number
+     * @param rotation number of times to rotate
+     * @param value the value (colour) of the piece
+     * @return the created GamePiece
+     */
+    public static GamePiece createPiece(int piece, int rotation, int value) {
+        //Throws if the piece number is not in the catalogue
+        PieceCatalogue.getShape(piece, rotation);
+        return new GamePiece(piece, rotation, value);
     }
 
     /**
-     * Create a new GamePiece with the given name, block makeup and value. Should not be called directly, only via the
-     * factory.
-     * @param name name of the piece
-     * @param blocks block makeup of the piece
+     * Create a new GamePiece with the given piece number, rotation and value. Should not be called directly, only via
+     * the factory.
+     * @param piece piece number
+     * @param rotation number of quarter turns
      * @param value the value of this piece
      */
-    private GamePiece(String name, int[][] blocks, int value) {
-        this.name = name;
-        this.blocks = blocks;
+    private GamePiece(int piece, int rotation, int value) {
+        this.piece = piece;
+        this.rotation = rotation & (PieceCatalogue.ROTATIONS - 1);
         this.value = value;
+        this.shape = PieceCatalogue.getShape(piece, this.rotation);
+    }
 
-        //Use the shape of the block to create a grid with either 0 (empty) or the value of this shape for each block.
-        for(int x = 0; x < blocks.length; x++) {
-            for (int y = 0; y < blocks[x].length; y++) {
-                if(blocks[x][y] == 0) continue;
-                blocks[x][y] = value;
-            }
-        }
+    /**
+     * Create a copy of this piece with the same number, rotation and value, which can be rotated independently
+     * @return the copy
+     */
+    public GamePiece copy() {
+        return new GamePiece(piece, rotation, value);
     }
 
     /**
@@ -183,41 +118,63 @@ public class GamePiece {
     }
 
     /**
-     * Get the block makeup of this piece
+     * Get the piece number of this piece
+     * @return piece number
+     */
+    public int getPiece() {
+        return piece;
+    }
+
+    /**
+     * Get the number of quarter turns this piece has been rotated by
+     * @return rotation from 0 to 3
+     */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Get the shape of the current rotation of this piece
+     * @return the shared, immutable shape
+     */
+    public PieceShape getShape() {
+        return shape;
+    }
+
+    /**
+     * Get the block makeup of this piece. A new array is built on each call, so prefer getShape() where possible.
      * @return 2D grid of the blocks representing the piece shape
      */
     public int[][] getBlocks() {
+        int[][] blocks = new int[3][3];
+        for(int cell = 0; cell < shape.getCellCount(); cell++) {
+            blocks[shape.getCellX(cell)][shape.getCellY(cell)] = value;
+        }
         return blocks;
     }
 
+    /**
+     * Get the packed 9 bit pattern of this piece's current rotation
+     * @return pattern with bit (blockX * 3 + blockY) set for each filled block
+     */
+    public int getPattern() {
+        return shape.getPattern();
+    }
+
     /**
      * Rotate this piece the given number of rotations
      * @param rotations number of rotations
      */
     public void rotate(int rotations) {
-        for(int rotated = 0; rotated < rotations; rotated ++) {
-            rotate();
-        }
+        rotation = (rotation + rotations) & (PieceCatalogue.ROTATIONS - 1);
+        shape = PieceCatalogue.getShape(piece, rotation);
     }
 
     /**
-     * Rotate this piece exactly once by rotating it's 3x3 grid
+     * Rotate this piece exactly once
      */
     public void rotate() {
-        int[][] rotated = new int[blocks.length][blocks[0].length];
-        rotated[2][0] = blocks[0][0];
-        rotated[1][0] = blocks[0][1];
-        rotated[0][0] = blocks[0][2];
-
-        rotated[2][1] = blocks[1][0];
-        rotated[1][1] = blocks[1][1];
-        rotated[0][1] = blocks[1][2];
-
-        rotated[2][2] = blocks[2][0];
-        rotated[1][2] = blocks[2][1];
-        rotated[0][2] = blocks[2][2];
-
-        blocks = rotated;
+        rotate(1);
     }
 
 
@@ -226,6 +183,6 @@ public class GamePiece {
      * @return the name of this piece
      */
     public String toString() {
-        return this.name;
+        return shape.getName();
     }
 }
@@ -0,0 +1,50 @@
+package uk.ac.soton.comp1206.game;
+
+import uk.ac.soton.comp1206.event.GameEventListener;
+
+/**
+ * Replays a MoveLog on a new headless GameCore. The core is seeded with the log's seed, so it generates the same pieces
+ * and colours, and applying the same moves leaves it in exactly the same state as the recorded game.
+ */
+public class GameReplay {
+
+    /**
+     * Replay a recorded game
+     * @param log the moves to replay
+     * @return the core in its final state
+     * @throws IllegalStateException if the replay diverges from the recording
+     */
+    public static GameCore replay(MoveLog log) {
+        return replay(log, null);
+    }
+
+    /**
+     * Replay a recorded game, telling a listener about everything that happens along the way
+     * @param log the moves to replay
+     * @param listener the listener to be told about the game's events, or null for none
+     * @return the core in its final state
+     * @throws IllegalStateException if the replay diverges from the recording
+     */
+    public static GameCore replay(MoveLog log, GameEventListener listener) {
+        GameCore core = new GameCore(log.getCols(), log.getRows(), log.getSeed());
+        core.setListener(listener);
+        core.start();
+        for(int move = 0; move < log.size(); move++) {
+            switch(log.getType(move)) {
+                case MoveLog.PLACE -> {
+                    //A recorded placement always succeeded, so a failure means the games have diverged
+                    if(!core.place(log.getX(move), log.getY(move))) {
+                        throw new IllegalStateException("Replay diverged at move " + move + ": cannot place "
+                            + core.getCurrentPiece() + " at (" + log.getX(move) + "," + log.getY(move) + ")");
+                    }
+                }
+                case MoveLog.ROTATE -> core.rotate(log.getRotations(move));
+                case MoveLog.SWAP -> core.swap();
+                case MoveLog.TIMEOUT -> core.timeout();
+                case MoveLog.PIECES -> core.setPieces(log.getCurrentPiece(move), log.getFollowingPiece(move));
+                default -> throw new IllegalStateException("Unknown move type " + log.getType(move) + " at move " + move);
+            }
+        }
+        return core;
+    }
+}
@@ -0,0 +1,198 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * An immutable copy of the state of a game at one moment: the current and following pieces, and the score, level,
+ * lives and multiplier. Snapshots are made by the GameActor after every command, so they can be read safely from any
+ * thread.
+ *
+ * The board is not copied, since most commands change few blocks or none. The blocks each command changes are
+ * reported to the core board's BoardListener instead, coalesced over the command.
+ */
+public final class GameSnapshot {
+
+    /**
+     * The number of commands the actor had finished when this snapshot was taken
+     */
+    private final long version;
+
+    /**
+     * The number of columns on the board
+     */
+    private final int cols;
+
+    /**
+     * The number of rows on the board
+     */
+    private final int rows;
+
+    /**
+     * The current piece, never handed out directly since pieces can be rotated
+     */
+    private final GamePiece currentPiece;
+
+    /**
+     * The following piece, never handed out directly since pieces can be rotated
+     */
+    private final GamePiece followingPiece;
+
+    /**
+     * The score
+     */
+    private final int score;
+
+    /**
+     * The level
+     */
+    private final int level;
+
+    /**
+     * The number of lives
+     */
+    private final int lives;
+
+    /**
+     * The multiplier
+     */
+    private final int multiplier;
+
+    /**
+     * The generation of the current piece
+     */
+    private final long pieceGeneration;
+
+    /**
+     * Take a snapshot of a game. Must be called on the thread that owns the core.
+     * @param core the game
+     * @param version the number of commands finished
+     */
+    GameSnapshot(GameCore core, long version) {
+        Board board = core.getBoard();
+        this.version = version;
+        this.cols = board.getCols();
+        this.rows = board.getRows();
+        this.currentPiece = core.getCurrentPiece() == null ? null : core.getCurrentPiece().copy();
+        this.followingPiece = core.getFollowingPiece() == null ? null : core.getFollowingPiece().copy();
+        this.score = core.getScore();
+        this.level = core.getLevel();
+        this.lives = core.getLives();
+        this.multiplier = core.getMultiplier();
+        this.pieceGeneration = core.getPieceGeneration();
+    }
+
+    /**
+     * Get the number of commands the actor had finished when this snapshot was taken
+     * @return version, increasing with each snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the number of columns on the board
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows on the board
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get a copy of the current piece
+     * @return a new copy of the current piece, or null before the game has started
+     */
+    public GamePiece getCurrentPiece() {
+        return currentPiece == null ? null : currentPiece.copy();
+    }
+
+    /**
+     * Get a copy of the following piece
+     * @return a new copy of the following piece, or null before the game has started
+     */
+    public GamePiece getFollowingPiece() {
+        return followingPiece == null ? null : followingPiece.copy();
+    }
+
+    /**
+     * Check whether the pieces in this snapshot are the same as those in another, including rotation and colour
+     * @param other the other snapshot, or null
+     * @return true if both pieces are the same
+     */
+    public boolean samePieces(GameSnapshot other) {
+        return other != null && samePiece(currentPiece, other.currentPiece)
+            && samePiece(followingPiece, other.followingPiece);
+    }
+
+    /**
+     * Check whether two pieces have the same number, rotation and value
+     * @param a a piece, or null
+     * @param b another piece, or null
+     * @return true if they are the same
+     */
+    private static boolean samePiece(GamePiece a, GamePiece b) {
+        if(a == null || b == null) return a == b;
+        return a.getPiece() == b.getPiece() && a.getRotation() == b.getRotation() && a.getValue() == b.getValue();
+    }
+
+    /**
+     * Get the score
+     * @return score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Get the level
+     * @return level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Get the number of lives
+     * @return lives
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Get the multiplier
+     * @return multiplier
+     */
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Get the generation of the current piece, which goes up each time a new piece is brought into play
+     * @return the piece generation
+     */
+    public long getPieceGeneration() {
+        return pieceGeneration;
+    }
+
+    /**
+     * Get the time allowed to place the current piece
+     * @return the delay in milliseconds
+     */
+    public int getTimerDelay() {
+        return GameCore.getTimerDelay(level);
+    }
+
+    /**
+     * Check whether the game had ended
+     * @return true once lives had gone below 0
+     */
+    public boolean isGameOver() {
+        return lives < 0;
+    }
+}
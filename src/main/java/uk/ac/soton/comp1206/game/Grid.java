@@ -4,7 +4,9 @@ import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.component.GameBlock;
+import uk.ac.soton.comp1206.event.BoardListener;
+
+import java.util.ArrayList;
 
 /**
  * The Grid is a model which holds the state of a game board. It is made up of a set of Integer values arranged in a 2D
@@ -16,6 +18,13 @@ import uk.ac.soton.comp1206.component.GameBlock;
  * The Grid contains functions related to modifying the model, for example, placing a piece inside the grid.
  *
  * The Grid should be linked to a GameBoard for it's display.
+ *
+ * The state itself lives in a plain Java Board (bitboard, fill counters and values). The Grid is the JavaFX view of
+ * that Board: its properties are updated whenever a block on the Board changes, including changes made directly by a
+ * headless GameCore.
+ *
+ * Changes to the Board are coalesced: beginUpdate() and commitUpdate() group them, and each group reaches the grid's
+ * change listeners as one set of changed blocks, after the properties have been updated.
  */
 public class Grid {
 
@@ -33,6 +42,16 @@ public class Grid {
      * The grid is a 2D arrow with rows and columns of SimpleIntegerProperties.
      */
     private final SimpleIntegerProperty[][] grid;
+
+    /**
+     * The board holding the state this grid is a view of
+     */
+    private final Board board;
+
+    /**
+     * Listeners told about each group of changed blocks
+     */
+    private final ArrayList<BoardListener> changeListeners = new ArrayList<>();
     /**
      * Logger for keeping track of events
      */
@@ -66,8 +85,17 @@ public class Grid {
      * @param rows number of rows
      */
     public Grid(int cols, int rows) {
-        this.cols = cols;
-        this.rows = rows;
+        this(new Board(cols, rows));
+    }
+
+    /**
+     * Create a new Grid as a view of an existing Board
+     * @param board the board to display
+     */
+    public Grid(Board board) {
+        this.board = board;
+        this.cols = board.getCols();
+        this.rows = board.getRows();
 
         //Create the grid itself
         grid = new SimpleIntegerProperty[cols][rows];
@@ -75,9 +103,57 @@ public class Grid {
         //Add a SimpleIntegerProperty to every block in the grid
         for(var y = 0; y < rows; y++) {
             for(var x = 0; x < cols; x++) {
-                grid[x][y] = new SimpleIntegerProperty(0);
+                grid[x][y] = new SimpleIntegerProperty(board.get(x, y));
             }
         }
+
+        //Keep the properties in step with the board
+        board.setBoardListener(this::boardChanged);
+    }
+
+    /**
+     * Update the properties of the blocks that changed on the board, then pass the changes on
+     * @param changed the blocks that changed
+     */
+    private void boardChanged(CellSet changed) {
+        for(int index = changed.nextIndex(0); index >= 0; index = changed.nextIndex(index + 1)) {
+            int x = changed.getX(index);
+            int y = changed.getY(index);
+            grid[x][y].set(board.get(x, y));
+        }
+        for(BoardListener listener : changeListeners) {
+            listener.boardChanged(changed);
+        }
+    }
+
+    /**
+     * Add a listener to be told about each group of changed blocks
+     * @param listener the listener to add
+     */
+    public void addChangeListener(BoardListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Start grouping changes together, so listeners hear about them once when commitUpdate() is called
+     */
+    public void beginUpdate() {
+        board.beginUpdate();
+    }
+
+    /**
+     * Finish grouping changes together and tell the listeners about every block that changed
+     */
+    public void commitUpdate() {
+        board.commitUpdate();
+    }
+
+    /**
+     * Get the board holding the state of this grid
+     * @return the board
+     */
+    public Board getBoard() {
+        return board;
     }
 
     /**
@@ -97,23 +173,17 @@ public class Grid {
      * @param value the new value
      */
     public void set(int x, int y, int value) {
-        grid[x][y].set(value);
+        board.set(x, y, value);
     }
 
     /**
      * Get the value represented at the given x and y index within the grid
      * @param x column
      * @param y row
-     * @return the value
+     * @return the value, or -1 if there is no such block
      */
     public int get(int x, int y) {
-        try {
-            //Get the value held in the property at the x and y index provided
-            return grid[x][y].get();
-        } catch (ArrayIndexOutOfBoundsException e) {
-            //No such index
-            return -1;
-        }
+        return board.get(x, y);
     }
 
     /**
@@ -132,6 +202,24 @@ public class Grid {
         return rows;
     }
 
+    /**
+     * Check whether every block in a row is filled
+     * @param y row
+     * @return true if the row is a complete line
+     */
+    public boolean isRowFull(int y) {
+        return board.isRowFull(y);
+    }
+
+    /**
+     * Check whether every block in a column is filled
+     * @param x column
+     * @return true if the column is a complete line
+     */
+    public boolean isColumnFull(int x) {
+        return board.isColumnFull(x);
+    }
+
     /**
      * Checks if piece can be played on the grid at given (x,y) coordinates
      * @param piece The game piece to be played
@@ -140,25 +228,11 @@ public class Grid {
      * @return Whether the piece can be played
      */
     public boolean canPlayPiece(GamePiece piece, int placeX, int placeY) {
-
-        int[][] blocks = piece.getBlocks();
-        //Get the blocks
-        var topX = placeX - 1;
-        var topY = placeY - 1;
         logger.info("Checking if we can play the piece {} at ({},{})", piece, placeX + 1, placeY + 1);
-        for(var blockX = 0; blockX < blocks.length; blockX++)
-            for(var blockY = 0; blockY < blocks.length; blockY++) {
-                //blockX and blockY coordinate inside the blocks 3x3 array
-                var blockValue = blocks[blockX][blockY];
-                if(blockValue > 0) {
-                    //Check if we can place this block on our grid
-                    var gridValue = get(topX + blockX,topY + blockY);
-                    if(gridValue != 0) {
-                        logger.info("Unable to place piece due to conflict at ({}, {})", placeX, placeY);
-                        return false;
-                    }
-                }
-            }
+        if(!board.canPlayPiece(piece, placeX, placeY)) {
+            logger.info("Unable to place piece due to conflict at ({}, {})", placeX, placeY);
+            return false;
+        }
         return true;
     }
 
@@ -169,14 +243,6 @@ public class Grid {
      * @param placeY The y coordinate
      */
     public void playPiece(GamePiece piece, int placeX, int placeY) {
-
-        var topX = placeX - 1;
-        var topY = placeY - 1;
-
-        int pieceValue = piece.getValue();
-        int[][] blocks = piece.getBlocks();
-
-        //Return if we can't play the piece
         logger.info("Playing the {} piece  at ({},{})", piece, placeX + 1, placeY + 1);
         //Grid model:
         //0 0 0 0 0
@@ -189,14 +255,6 @@ public class Grid {
         //1 0 0
         //0 1 0
         //0 0 1
-
-        for(var blockX = 0; blockX < blocks.length; blockX++)
-            for(var blockY = 0; blockY < blocks.length; blockY++) {
-                //blockX and blockY coordinate inside the blocks 3x3 array
-                var blockValue = blocks[blockX][blockY];
-                if(blockValue > 0) {
-                    set(topX + blockX, topY + blockY, pieceValue);
-            }
-        }
+        board.playPiece(piece, placeX, placeY);
     }
 }
@@ -0,0 +1,113 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A suggested move from the HintEngine: whether to swap first, how many times to rotate the piece that will then be
+ * current, and where to place its centre.
+ */
+public class Hint {
+
+    /**
+     * Whether the current and following pieces should be swapped first
+     */
+    private final boolean swap;
+
+    /**
+     * The number of quarter turns to rotate the piece by before placing it
+     */
+    private final int rotations;
+
+    /**
+     * The x coordinate to place the centre of the piece at
+     */
+    private final int x;
+
+    /**
+     * The y coordinate to place the centre of the piece at
+     */
+    private final int y;
+
+    /**
+     * The number of lines the move clears straight away
+     */
+    private final int lines;
+
+    /**
+     * How good the engine rated the move, higher is better
+     */
+    private final int value;
+
+    /**
+     * Create a new hint
+     * @param swap whether to swap first
+     * @param rotations the number of quarter turns to rotate by
+     * @param x the x coordinate of the centre of the piece
+     * @param y the y coordinate of the centre of the piece
+     * @param lines the number of lines the move clears
+     * @param value how good the move was rated
+     */
+    public Hint(boolean swap, int rotations, int x, int y, int lines, int value) {
+        this.swap = swap;
+        this.rotations = rotations;
+        this.x = x;
+        this.y = y;
+        this.lines = lines;
+        this.value = value;
+    }
+
+    /**
+     * Whether the current and following pieces should be swapped first
+     * @return true to swap
+     */
+    public boolean isSwap() {
+        return swap;
+    }
+
+    /**
+     * Get the number of quarter turns to rotate the piece by before placing it
+     * @return rotations, from 0 to 3
+     */
+    public int getRotations() {
+        return rotations;
+    }
+
+    /**
+     * Get the x coordinate to place the centre of the piece at
+     * @return x coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Get the y coordinate to place the centre of the piece at
+     * @return y coordinate
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Get the number of lines the move clears straight away
+     * @return lines cleared
+     */
+    public int getLines() {
+        return lines;
+    }
+
+    /**
+     * Get how good the engine rated the move
+     * @return value, higher is better
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Return the string representation of this hint
+     * @return a description of the move
+     */
+    public String toString() {
+        return (swap ? "swap, " : "") + "rotate " + rotations + ", place at (" + x + "," + y + ") clearing " + lines
+            + " lines";
+    }
+}
@@ -0,0 +1,393 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The HintEngine finds the best move for the current and following pieces. It tries every distinct rotation of the
+ * current piece, and of the following piece as if they were swapped, in every position it fits. Each move is rated
+ * by the lines it clears plus the best the other piece could then do, and the openness of the board left behind.
+ *
+ * The search works on a copy of the board's occupancy as one long per row, so boards up to 64 columns wide can be
+ * searched. Results are memoized in a bounded, least recently used transposition cache keyed by the occupancy and the
+ * pieces, so asking again for the same position (e.g. every frame while the player thinks) is a single lookup.
+ *
+ * A HintEngine is not thread safe and should only be used from one thread, such as the JavaFX thread.
+ */
+public class HintEngine {
+
+    /**
+     * What each cleared line is worth
+     */
+    private static final int LINE_WEIGHT = 100;
+
+    /**
+     * What each empty block with no empty neighbours costs, since those are hard to fill
+     */
+    private static final int HOLE_PENALTY = 4;
+
+    /**
+     * What it costs to leave the board with nowhere to place the next piece
+     */
+    private static final int TIMEOUT_PENALTY = 1000;
+
+    /**
+     * Boards with more blocks than this are only searched one piece deep, so a hint is still found within a frame
+     */
+    private static final int LOOKAHEAD_LIMIT = 100;
+
+    /**
+     * Cached best moves, keyed by board and current and following pieces
+     */
+    private final LinkedHashMap<BoardKey, Hint> hints;
+
+    /**
+     * Cached ratings of the best a single piece can do on a board, keyed by board and piece
+     */
+    private final LinkedHashMap<BoardKey, Integer> followUps;
+
+    /**
+     * The number of hints answered from the cache
+     */
+    private int hits;
+
+    /**
+     * The number of hints that needed a search
+     */
+    private int misses;
+
+    /**
+     * Create a new hint engine with a default sized cache
+     */
+    public HintEngine() {
+        this(4096);
+    }
+
+    /**
+     * Create a new hint engine
+     * @param capacity the most positions to keep in each cache
+     */
+    public HintEngine(int capacity) {
+        this.hints = createCache(capacity);
+        this.followUps = createCache(capacity);
+    }
+
+    /**
+     * Create a least recently used map that holds at most the given number of entries
+     * @param capacity the most entries to hold
+     * @param <V> the type of value cached
+     * @return the empty map
+     */
+    private static <V> LinkedHashMap<BoardKey, V> createCache(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BoardKey, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Find the best move on a grid
+     * @param grid the grid being played on
+     * @param current the current piece
+     * @param following the following piece, which may be swapped in, or null
+     * @return the best move, or null if neither piece fits anywhere
+     */
+    public Hint getHint(Grid grid, GamePiece current, GamePiece following) {
+        return getHint(grid.getBoard(), current, following);
+    }
+
+    /**
+     * Find the best move on a board
+     * @param board the board being played on
+     * @param current the current piece
+     * @param following the following piece, which may be swapped in, or null
+     * @return the best move, or null if neither piece fits anywhere
+     * @throws IllegalArgumentException if the board is more than 64 columns wide
+     */
+    public Hint getHint(Board board, GamePiece current, GamePiece following) {
+        if(board.getCols() > Long.SIZE) {
+            throw new IllegalArgumentException("Hints are only available for boards up to 64 columns wide");
+        }
+        long[] rows = new long[board.getRows()];
+        for(var y = 0; y < board.getRows(); y++) {
+            rows[y] = board.getRowMask(y);
+        }
+
+        BoardKey key = new BoardKey(rows, board.getCols(), (packPiece(current) << 8) | packPiece(following));
+        Hint hint = hints.get(key);
+        if(hint != null || hints.containsKey(key)) {
+            hits++;
+            return hint;
+        }
+        misses++;
+        hint = search(rows, board.getCols(), current, following);
+        hints.put(key, hint);
+        return hint;
+    }
+
+    /**
+     * Try every move with the current piece, and with the following piece if swapped, and keep the best
+     * @param rows the occupancy of each row
+     * @param cols number of columns
+     * @param current the current piece
+     * @param following the following piece, or null
+     * @return the best move, or null if no move is possible
+     */
+    private Hint search(long[] rows, int cols, GamePiece current, GamePiece following) {
+        boolean lookahead = following != null && cols * rows.length <= LOOKAHEAD_LIMIT;
+        long[] after = new long[rows.length];
+        int[] patterns = new int[PieceCatalogue.ROTATIONS];
+        Hint best = null;
+
+        for(var option = 0; option < (following == null ? 1 : 2); option++) {
+            GamePiece piece = option == 0 ? current : following;
+            GamePiece next = option == 0 ? following : current;
+            int distinct = 0;
+            for(var turns = 0; turns < PieceCatalogue.ROTATIONS; turns++) {
+                PieceShape shape = PieceCatalogue.getShape(piece.getPiece(), (piece.getRotation() + turns) & 3);
+                //Symmetrical pieces look the same after some rotations, so only try each shape once
+                if(contains(patterns, distinct, shape.getPattern())) continue;
+                patterns[distinct++] = shape.getPattern();
+
+                for(var y = 1 - shape.getMinY(); y <= rows.length - shape.getMaxY(); y++) {
+                    for(var x = 1 - shape.getMinX(); x <= cols - shape.getMaxX(); x++) {
+                        if(!fits(rows, shape, x, y)) continue;
+                        System.arraycopy(rows, 0, after, 0, rows.length);
+                        int lines = placeAndClear(after, cols, shape, x, y);
+                        int value = lines * LINE_WEIGHT + (lookahead ? followUp(after, cols, next) : openness(after, cols));
+                        if(best == null || value > best.getValue()) {
+                            best = new Hint(option == 1, turns, x, y, lines, value);
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Rate the best a single piece can do on a board, in any rotation and position
+     * @param rows the occupancy of each row
+     * @param cols number of columns
+     * @param piece the piece to place
+     * @return the rating of its best move
+     */
+    private int followUp(long[] rows, int cols, GamePiece piece) {
+        BoardKey key = new BoardKey(rows, cols, piece.getPiece());
+        Integer cached = followUps.get(key);
+        if(cached != null) return cached;
+
+        long[] after = new long[rows.length];
+        int[] patterns = new int[PieceCatalogue.ROTATIONS];
+        int distinct = 0;
+        int best = openness(rows, cols) - TIMEOUT_PENALTY;
+        for(var rotation = 0; rotation < PieceCatalogue.ROTATIONS; rotation++) {
+            PieceShape shape = PieceCatalogue.getShape(piece.getPiece(), rotation);
+            if(contains(patterns, distinct, shape.getPattern())) continue;
+            patterns[distinct++] = shape.getPattern();
+
+            for(var y = 1 - shape.getMinY(); y <= rows.length - shape.getMaxY(); y++) {
+                for(var x = 1 - shape.getMinX(); x <= cols - shape.getMaxX(); x++) {
+                    if(!fits(rows, shape, x, y)) continue;
+                    System.arraycopy(rows, 0, after, 0, rows.length);
+                    int lines = placeAndClear(after, cols, shape, x, y);
+                    best = Math.max(best, lines * LINE_WEIGHT + openness(after, cols));
+                }
+            }
+        }
+        //The rows array is scratch space owned by the caller, so the cache needs its own copy
+        followUps.put(new BoardKey(rows.clone(), cols, piece.getPiece()), best);
+        return best;
+    }
+
+    /**
+     * Check whether a shape fits centred at the given position. The position must keep the shape on the board.
+     * @param rows the occupancy of each row
+     * @param shape the shape to place
+     * @param x the x coordinate of the centre of the shape
+     * @param y the y coordinate of the centre of the shape
+     * @return true if none of the shape's blocks are filled
+     */
+    private static boolean fits(long[] rows, PieceShape shape, int x, int y) {
+        for(var cell = 0; cell < shape.getCellCount(); cell++) {
+            if((rows[y - 1 + shape.getCellY(cell)] & (1L << (x - 1 + shape.getCellX(cell)))) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Place a shape and clear any completed rows and columns, using the same rules as the GameCore
+     * @param rows the occupancy of each row, updated in place
+     * @param cols number of columns
+     * @param shape the shape to place
+     * @param x the x coordinate of the centre of the shape
+     * @param y the y coordinate of the centre of the shape
+     * @return the number of lines cleared
+     */
+    private static int placeAndClear(long[] rows, int cols, PieceShape shape, int x, int y) {
+        for(var cell = 0; cell < shape.getCellCount(); cell++) {
+            rows[y - 1 + shape.getCellY(cell)] |= 1L << (x - 1 + shape.getCellX(cell));
+        }
+
+        //A column is full when its bit is set in every row
+        long full = fullRow(cols);
+        long fullColumns = full;
+        for(long row : rows) fullColumns &= row;
+
+        int lines = Long.bitCount(fullColumns);
+        for(var row = 0; row < rows.length; row++) {
+            if(rows[row] == full) {
+                lines++;
+                rows[row] = 0;
+            } else {
+                rows[row] &= ~fullColumns;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Rate how open a board is: each empty block counts for it, and each empty block with no empty neighbour
+     * counts against it
+     * @param rows the occupancy of each row
+     * @param cols number of columns
+     * @return the openness of the board
+     */
+    private static int openness(long[] rows, int cols) {
+        long full = fullRow(cols);
+        int openness = 0;
+        for(var row = 0; row < rows.length; row++) {
+            long empty = ~rows[row] & full;
+            long above = row > 0 ? ~rows[row - 1] & full : 0;
+            long below = row < rows.length - 1 ? ~rows[row + 1] & full : 0;
+            long connected = (empty << 1) | (empty >>> 1) | above | below;
+            openness += Long.bitCount(empty) - HOLE_PENALTY * Long.bitCount(empty & ~connected);
+        }
+        return openness;
+    }
+
+    /**
+     * Get the occupancy of a completely filled row
+     * @param cols number of columns
+     * @return a mask with the lowest cols bits set
+     */
+    private static long fullRow(int cols) {
+        return cols == Long.SIZE ? -1L : (1L << cols) - 1;
+    }
+
+    /**
+     * Check whether a pattern is among the first count entries of an array
+     * @param patterns the patterns seen so far
+     * @param count the number of patterns seen
+     * @param pattern the pattern to look for
+     * @return true if it has been seen
+     */
+    private static boolean contains(int[] patterns, int count, int pattern) {
+        for(var i = 0; i < count; i++) {
+            if(patterns[i] == pattern) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Pack a piece's number and rotation into 8 bits, for use in a cache key
+     * @param piece the piece, or null
+     * @return the packed piece, or 0xFF for no piece
+     */
+    private static int packPiece(GamePiece piece) {
+        if(piece == null) return 0xFF;
+        return (piece.getPiece() << 2) | piece.getRotation();
+    }
+
+    /**
+     * Get the number of hints answered from the cache
+     * @return cache hits
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of hints that needed a search
+     * @return cache misses
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Empty the caches
+     */
+    public void clear() {
+        hints.clear();
+        followUps.clear();
+    }
+
+    /**
+     * A cache key made up of a board's occupancy and the pieces being placed on it. The hash is worked out once, when
+     * the key is created.
+     */
+    private static final class BoardKey {
+
+        /**
+         * The occupancy of each row
+         */
+        private final long[] rows;
+
+        /**
+         * The number of columns
+         */
+        private final int cols;
+
+        /**
+         * The packed pieces
+         */
+        private final int pieces;
+
+        /**
+         * The hash of the rows, columns and pieces
+         */
+        private final int hash;
+
+        /**
+         * Create a new key. The rows array is used as it is, not copied.
+         * @param rows the occupancy of each row
+         * @param cols number of columns
+         * @param pieces the packed pieces
+         */
+        BoardKey(long[] rows, int cols, int pieces) {
+            this.rows = rows;
+            this.cols = cols;
+            this.pieces = pieces;
+            long hash = pieces * 0x9E3779B97F4A7C15L + cols;
+            for(long row : rows) {
+                hash = (hash ^ row) * 0xBF58476D1CE4E5B9L;
+                hash ^= hash >>> 31;
+            }
+            this.hash = (int) (hash ^ (hash >>> 32));
+        }
+
+        /**
+         * Get the hash of this key
+         * @return hash
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * Check whether another key is for the same board and pieces
+         * @param other the other key
+         * @return true if they are equal
+         */
+        @Override
+        public boolean equals(Object other) {
+            if(!(other instanceof BoardKey key)) return false;
+            return hash == key.hash && pieces == key.pieces && cols == key.cols && Arrays.equals(rows, key.rows);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Arrays;
+
+/**
+ * A compact record of everything a player did in a game: placements, rotations, swaps, timeouts and any pieces that
+ * were handed to the game from elsewhere. Together with the seed and board size it is enough for GameReplay to
+ * reproduce the game exactly, because every other random choice comes from the game's seeded generator.
+ *
+ * Each move is packed into a single int: the type in the top 4 bits and its arguments below. The whole log can be
+ * written to a single line with encode() and read back with decode(), e.g. from a log file.
+ */
+public final class MoveLog {
+
+    /**
+     * A piece was placed centred at (x, y)
+     */
+    public static final int PLACE = 0;
+
+    /**
+     * The current piece was rotated a number of quarter turns
+     */
+    public static final int ROTATE = 1;
+
+    /**
+     * The current and following pieces were swapped
+     */
+    public static final int SWAP = 2;
+
+    /**
+     * The timer ran out before a piece was placed
+     */
+    public static final int TIMEOUT = 3;
+
+    /**
+     * The current and following pieces were replaced with pieces from elsewhere
+     */
+    public static final int PIECES = 4;
+
+    /**
+     * The seed of the game's piece generator
+     */
+    private final long seed;
+
+    /**
+     * The number of columns on the board
+     */
+    private final int cols;
+
+    /**
+     * The number of rows on the board
+     */
+    private final int rows;
+
+    /**
+     * The packed moves, in the order they were made
+     */
+    private int[] moves = new int[64];
+
+    /**
+     * The number of moves recorded
+     */
+    private int size;
+
+    /**
+     * Create a new empty move log for a game
+     * @param seed the seed of the game's piece generator
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public MoveLog(long seed, int cols, int rows) {
+        this.seed = seed;
+        this.cols = cols;
+        this.rows = rows;
+    }
+
+    /**
+     * Record a piece being placed
+     * @param x the x coordinate of the centre of the piece
+     * @param y the y coordinate of the centre of the piece
+     */
+    public void place(int x, int y) {
+        add(PLACE, ((x & 0xFF) << 8) | (y & 0xFF));
+    }
+
+    /**
+     * Record the current piece being rotated
+     * @param rotations number of quarter turns
+     */
+    public void rotate(int rotations) {
+        add(ROTATE, rotations & (PieceCatalogue.ROTATIONS - 1));
+    }
+
+    /**
+     * Record the current and following pieces being swapped
+     */
+    public void swap() {
+        add(SWAP, 0);
+    }
+
+    /**
+     * Record the timer running out
+     */
+    public void timeout() {
+        add(TIMEOUT, 0);
+    }
+
+    /**
+     * Record the current and following pieces being replaced
+     * @param currentPiece the new current piece
+     * @param followingPiece the new following piece
+     */
+    public void pieces(GamePiece currentPiece, GamePiece followingPiece) {
+        add(PIECES, (packPiece(currentPiece) << 12) | packPiece(followingPiece));
+    }
+
+    /**
+     * Append a packed move, growing the log if needed
+     * @param type the type of move
+     * @param arguments the packed arguments, at most 28 bits
+     */
+    private void add(int type, int arguments) {
+        if(size == moves.length) moves = Arrays.copyOf(moves, size * 2);
+        moves[size++] = (type << 28) | arguments;
+    }
+
+    /**
+     * Pack a piece into 12 bits: 4 for the piece number, 2 for the rotation and 6 for the value
+     * @param piece the piece
+     * @return the packed piece
+     */
+    private static int packPiece(GamePiece piece) {
+        return (piece.getPiece() << 8) | (piece.getRotation() << 6) | piece.getValue();
+    }
+
+    /**
+     * Unpack a piece packed by packPiece
+     * @param packed the packed piece
+     * @return a new piece with the same number, rotation and value
+     */
+    private static GamePiece unpackPiece(int packed) {
+        return GamePiece.createPiece((packed >> 8) & 0xF, (packed >> 6) & 0x3, packed & 0x3F);
+    }
+
+    /**
+     * Get the seed of the game's piece generator
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the number of columns on the board
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows on the board
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the number of moves recorded
+     * @return number of moves
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the type of a move
+     * @param move the index of the move
+     * @return one of PLACE, ROTATE, SWAP, TIMEOUT or PIECES
+     */
+    public int getType(int move) {
+        return moves[move] >>> 28;
+    }
+
+    /**
+     * Get the x coordinate of a PLACE move
+     * @param move the index of the move
+     * @return x coordinate of the centre of the piece
+     */
+    public int getX(int move) {
+        return (moves[move] >> 8) & 0xFF;
+    }
+
+    /**
+     * Get the y coordinate of a PLACE move
+     * @param move the index of the move
+     * @return y coordinate of the centre of the piece
+     */
+    public int getY(int move) {
+        return moves[move] & 0xFF;
+    }
+
+    /**
+     * Get the number of quarter turns of a ROTATE move
+     * @param move the index of the move
+     * @return number of rotations
+     */
+    public int getRotations(int move) {
+        return moves[move] & 0x3;
+    }
+
+    /**
+     * Get the new current piece of a PIECES move
+     * @param move the index of the move
+     * @return a new copy of the piece
+     */
+    public GamePiece getCurrentPiece(int move) {
+        return unpackPiece((moves[move] >> 12) & 0xFFF);
+    }
+
+    /**
+     * Get the new following piece of a PIECES move
+     * @param move the index of the move
+     * @return a new copy of the piece
+     */
+    public GamePiece getFollowingPiece(int move) {
+        return unpackPiece(moves[move] & 0xFFF);
+    }
+
+    /**
+     * Write this log to a single line of text, in the form seed:colsxrows:move,move,... with each move in hex
+     * @return the encoded log
+     */
+    public String encode() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(seed).append(':').append(cols).append('x').append(rows).append(':');
+        for(int move = 0; move < size; move++) {
+            if(move > 0) builder.append(',');
+            builder.append(Integer.toHexString(moves[move]));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Read a log written by encode()
+     * @param encoded the encoded log
+     * @return the decoded log
+     * @throws IllegalArgumentException if the text is not an encoded log
+     */
+    public static MoveLog decode(String encoded) {
+        String[] components = encoded.trim().split(":", -1);
+        String[] size = components.length == 3 ? components[1].split("x") : new String[0];
+        if(size.length != 2) {
+            throw new IllegalArgumentException("Not an encoded move log: " + encoded);
+        }
+        try {
+            MoveLog log = new MoveLog(Long.parseLong(components[0]), Integer.parseInt(size[0]),
+                Integer.parseInt(size[1]));
+            if(components[2].isEmpty()) return log;
+            for(String move : components[2].split(",")) {
+                int packed = Integer.parseUnsignedInt(move, 16);
+                log.add(packed >>> 28, packed & 0x0FFFFFFF);
+            }
+            return log;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not an encoded move log: " + encoded, e);
+        }
+    }
+}
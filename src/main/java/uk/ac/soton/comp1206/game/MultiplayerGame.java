@@ -1,13 +1,12 @@
 package uk.ac.soton.comp1206.game;
 import javafx.application.Platform;
-import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.component.GameBlock;
 import uk.ac.soton.comp1206.network.Communicator;
-import uk.ac.soton.comp1206.utility.Multimedia;
+import uk.ac.soton.comp1206.scores.TopScores;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Multiplayer
@@ -22,20 +21,28 @@ public class MultiplayerGame extends Game{
      */
     private final Communicator communicator;
     /**
-     * Linked list containing all the game pieces
+     * The core, which takes its pieces from the server
      */
-    private LinkedList<GamePiece> queue;
+    private final OnlineCore onlineCore;
     /**
-     * Arraylist of pairs of string, intgers
+     * Whether the game has been started
      */
-    private ArrayList<Pair<String, Integer>> onlineScores;
+    private boolean started = false;
+    /**
+     * The most players shown on the multiplayer leaderboard
+     */
+    private static final int MAX_PLAYERS = 10;
+    /**
+     * The scores of the players in the game, best first
+     */
+    private final TopScores onlineScores = new TopScores(MAX_PLAYERS);
 
     /**
-     * Getter method to get teh arraylist
-     * @return the arraylist
+     * Getter method to get the scores of the players in the game
+     * @return the scores, best first
      */
 
-    public ArrayList<Pair<String, Integer>> getOnlineScores() {
+    public TopScores getOnlineScores() {
         return onlineScores;
     }
 
@@ -47,9 +54,18 @@ public class MultiplayerGame extends Game{
      * @param communicator the communicator being used
      */
     public MultiplayerGame(int cols, int rows, Communicator communicator) {
-        super(cols, rows);
+        this(new OnlineCore(cols, rows, communicator), communicator);
+    }
+
+    /**
+     * Create a new game around a core taking its pieces from the server
+     * @param core the core
+     * @param communicator the communicator being used
+     */
+    private MultiplayerGame(OnlineCore core, Communicator communicator) {
+        super(core);
+        this.onlineCore = core;
         this.communicator = communicator;
-        this.queue = new LinkedList<>();
         communicator.addListener((communication -> Platform.runLater(() -> handleIncomingMessages(communication))));
 
     }
@@ -61,18 +77,16 @@ public class MultiplayerGame extends Game{
     public void start() {
         logger.info("Starting game");
         initialise();
-        startTimer();
     }
 
     /**
-     * Initialise the game
+     * Initialise the game. The game itself starts once the first two pieces have arrived.
      */
     public void initialise() {
 
         communicator.send("PIECE");
         communicator.send("PIECE");
-        onlineScores = new ArrayList<>();
-        nextOnlinePiece();
+        onlineScores.clear();
     }
 
     /**
@@ -104,17 +118,15 @@ public class MultiplayerGame extends Game{
      */
     private void getMultiplayerScores(String message) {
         logger.info("Recieved online scores {}", message);
-        onlineScores.clear();
         String[] seperateScores = message.split("/n");
 
+        onlineScores.clear();
         for(int i = 0; i < seperateScores.length; ++i) {
             String nameAndPoints = seperateScores[i];
             String[] components = nameAndPoints.split(":");
             logger.info("Received score: {} = {}", components[0], Integer.parseInt(components[1]));
-            onlineScores.add(new Pair(components[0], Integer.parseInt(components[1])));
+            onlineScores.add(components[0], Integer.parseInt(components[1]));
         }
-
-        sortScores(onlineScores);
     }
 
     /**
@@ -133,73 +145,74 @@ public class MultiplayerGame extends Game{
     }
 
     /**
-     * Plays a piece
-     * @return
-     */
-    private GamePiece playPiece() {
-        GamePiece gamePiece = queue.getFirst();
-        this.communicator.send("PIECE");
-        queue.removeFirst();
-        return gamePiece;
-    }
-
-    /**
-     * Sets the current piece and following piece and removes first 2 pieces
-     */
-    private void nextOnlinePiece() {
-        //Sets the current piece to the following piece
-        currentPiece = queue.get(1);
-        //Following piece becomes a new piece
-        followingPiece = queue.get(2);
-        queue.removeFirst();
-        queue.remove(1);
-        //Set the nextPieceListener for the new set of pieces
-        nextPieceListener.nextPiece(currentPiece, followingPiece);
-        //Restart timer
-        resetTimer();
-        logger.info("The next piece is: {} and the following piece is {}", currentPiece, followingPiece);
-    }
-
-    /**
-     * Creates a piece according to int recieved by communicator
+     * Creates a piece according to int recieved by communicator, and starts the game once there are two
      * @param piece the piece to be played
      */
     private void createPiece(int piece) {
 
         GamePiece piece1 = GamePiece.createPiece(piece);
         logger.info("Creating piece " + piece1.getValue());
-        queue.add(piece1);
-        currentPiece = queue.getFirst();
+        onlineCore.pieces.offer(piece1);
+        if(!started && onlineCore.pieces.size() >= 2) {
+            started = true;
+            initialiseGame();
+        }
     }
 
     /**
-     * Updates the grid when a block gets clicked, and handles the events
-     * @param gameBlock the block that was clicked
+     * Play the placement sound and send the new board to the server
+     * @param piece the piece that was placed
+     * @param x the x coordinate of the centre of the piece
+     * @param y the y coordinate of the centre of the piece
      */
-    public void blockClicked(GameBlock gameBlock) {
-        int x = gameBlock.getX();
-        int y = gameBlock.getY();
-        if(grid.canPlayPiece(currentPiece, x, y)) {
-            Multimedia.playAudio("place.wav");
-            grid.playPiece(currentPiece, x, y);
-            nextOnlinePiece();
-            afterPiece();
-            setScore(scoreProperty.get());
-            sendBoard();
-        }
-        else {
-            Multimedia.playAudio("fail.wav");
-        }
+    @Override
+    public void piecePlaced(GamePiece piece, int x, int y) {
+        super.piecePlaced(piece, x, y);
+        sendBoard();
     }
 
     /**
-     * Sorts the scores of an arraylist
-     * @param arrayList
+     * A core that takes its pieces from those sent by the server, asking for another each time one is used
      */
-    private void sortScores(ArrayList arrayList) {
-        Comparator<Pair<String, Integer>> comparator = Comparator.comparing(Pair::getValue);
-        comparator = comparator.reversed();
-        Collections.sort(arrayList, comparator);
+    private static class OnlineCore extends GameCore {
+
+        /**
+         * Pieces received from the server and not yet used, filled on the JavaFX thread and used on the actor's thread
+         */
+        private final ConcurrentLinkedQueue<GamePiece> pieces = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Communicator used to ask for more pieces
+         */
+        private final Communicator communicator;
+
+        /**
+         * Create a new core
+         * @param cols number of columns
+         * @param rows number of rows
+         * @param communicator the communicator used to ask for pieces
+         */
+        private OnlineCore(int cols, int rows, Communicator communicator) {
+            super(cols, rows);
+            this.communicator = communicator;
+            //Pieces from the server cannot be regenerated from the seed, so these games cannot be replayed
+            setMoveLog(null);
+        }
+
+        /**
+         * Take the next piece from the server, or a random one if none has arrived yet
+         * @return The next piece to be played
+         */
+        @Override
+        protected GamePiece spawnPiece() {
+            GamePiece piece = pieces.poll();
+            if(piece == null) {
+                logger.warn("No piece received from the server yet, using a random piece");
+                return super.spawnPiece();
+            }
+            communicator.send("PIECE");
+            return piece;
+        }
     }
 
 }
@@ -0,0 +1,130 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.HashMap;
+
+/**
+ * The PieceCatalogue holds every rotation of every piece in the game. It is built once when the class is loaded, and
+ * identical rotations are deduplicated so they share a single PieceShape.
+ *
+ * Rotating a GamePiece is then just a change of index into this catalogue, with nothing allocated.
+ */
+public final class PieceCatalogue {
+
+    /**
+     * The number of distinct rotations of a piece
+     */
+    public static final int ROTATIONS = 4;
+
+    /**
+     * The names of each piece, indexed by piece number
+     */
+    private static final String[] NAMES = {
+            "Dot", "Line", "Plus", "C", "Square", "L", "J", "S", "Z", "T", "X", "Corner", "Inverse Corner", "Diagonal",
+            "Double"
+    };
+
+    /**
+     * The block makeup of each piece in its starting rotation, indexed by piece number
+     */
+    private static final int[][][] BLOCKS = {
+            //Dot
+            {{0, 0, 0}, {0, 1, 0}, {0, 0, 0}},
+            //Line
+            {{0, 0, 0}, {1, 1, 1}, {0, 0, 0}},
+            //Plus
+            {{0, 1, 0}, {1, 1, 1}, {0, 1, 0}},
+            //C
+            {{0, 0, 0}, {1, 1, 1}, {1, 0, 1}},
+            //Square
+            {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}},
+            //L
+            {{0, 0, 0}, {1, 1, 1}, {0, 0, 1}},
+            //J
+            {{0, 0, 1}, {1, 1, 1}, {0, 0, 0}},
+            //S
+            {{0, 0, 0}, {0, 1, 1}, {1, 1, 0}},
+            //Z
+            {{1, 1, 0}, {0, 1, 1}, {0, 0, 0}},
+            //T
+            {{1, 0, 0}, {1, 1, 0}, {1, 0, 0}},
+            //X
+            {{1, 0, 1}, {0, 1, 0}, {1, 0, 1}},
+            //Corner
+            {{0, 0, 0}, {1, 1, 0}, {1, 0, 0}},
+            //Inverse Corner
+            {{1, 0, 0}, {1, 1, 0}, {0, 0, 0}},
+            //Diagonal
+            {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}},
+            //Double
+            {{0, 1, 0}, {0, 1, 0}, {0, 0, 0}}
+    };
+
+    /**
+     * Every rotation of every piece, indexed by [piece][rotation]
+     */
+    private static final PieceShape[][] SHAPES = new PieceShape[NAMES.length][ROTATIONS];
+
+    static {
+        for(int piece = 0; piece < NAMES.length; piece++) {
+            //Rotations of the same piece that end up with the same pattern share a shape
+            HashMap<Integer, PieceShape> distinct = new HashMap<>();
+            int pattern = pack(BLOCKS[piece]);
+            for(int rotation = 0; rotation < ROTATIONS; rotation++) {
+                final String name = NAMES[piece];
+                SHAPES[piece][rotation] = distinct.computeIfAbsent(pattern, p -> new PieceShape(name, p));
+                pattern = PieceShape.rotate(pattern);
+            }
+        }
+    }
+
+    /**
+     * The catalogue is static only
+     */
+    private PieceCatalogue() {
+    }
+
+    /**
+     * Pack a 3x3 block makeup into a 9 bit pattern
+     * @param blocks block makeup of a piece
+     * @return pattern with bit (blockX * 3 + blockY) set for each filled block
+     */
+    private static int pack(int[][] blocks) {
+        int pattern = 0;
+        for(int x = 0; x < 3; x++) {
+            for(int y = 0; y < 3; y++) {
+                if(blocks[x][y] != 0) pattern |= 1 << (x * 3 + y);
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * Get the number of pieces in the catalogue
+     * @return number of pieces
+     */
+    public static int size() {
+        return SHAPES.length;
+    }
+
+    /**
+     * Get the shape of a piece in the given rotation
+     * @param piece piece number
+     * @param rotation number of quarter turns, from 0 to 3
+     * @return the shape
+     */
+    public static PieceShape getShape(int piece, int rotation) {
+        if(piece < 0 || piece >= SHAPES.length) {
+            throw new IndexOutOfBoundsException("No such piece: " + piece);
+        }
+        return SHAPES[piece][rotation & (ROTATIONS - 1)];
+    }
+
+    /**
+     * Get the name of a piece
+     * @param piece piece number
+     * @return name of the piece
+     */
+    public static String getName(int piece) {
+        return NAMES[piece];
+    }
+}
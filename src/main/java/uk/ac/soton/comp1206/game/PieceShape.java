@@ -0,0 +1,199 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * An immutable shape representing one rotation of a game piece inside its 3x3 grid.
+ *
+ * Shapes are only created by the PieceCatalogue, once per distinct rotation, so rotations that look the same (for
+ * example every rotation of the Dot or Plus) share one PieceShape. Each shape holds the packed pattern of its blocks,
+ * their bounding box, a list of the filled cells and a mask of the cells in each row, so nothing needs to be
+ * recomputed when a piece is rotated or played.
+ */
+public final class PieceShape {
+
+    /**
+     * The name of the piece this shape belongs to
+     */
+    private final String name;
+
+    /**
+     * The blocks of this shape packed into 9 bits, with bit (blockX * 3 + blockY) set for each filled block
+     */
+    private final int pattern;
+
+    /**
+     * The bounding box of the filled blocks inside the 3x3 grid
+     */
+    private final int minX, maxX, minY, maxY;
+
+    /**
+     * The x coordinate of each filled block inside the 3x3 grid
+     */
+    private final int[] cellX;
+
+    /**
+     * The y coordinate of each filled block inside the 3x3 grid
+     */
+    private final int[] cellY;
+
+    /**
+     * The filled blocks of each row of the bounding box, from the top, with bit (blockX - minX) set for each block
+     */
+    private final int[] rowMasks = new int[3];
+
+    /**
+     * Create a new shape from a packed pattern. Should only be called by the PieceCatalogue.
+     * @param name name of the piece
+     * @param pattern the 9 bit pattern of the shape
+     */
+    PieceShape(String name, int pattern) {
+        this.name = name;
+        this.pattern = pattern;
+
+        int count = Integer.bitCount(pattern);
+        cellX = new int[count];
+        cellY = new int[count];
+
+        //Walk the pattern once to work out the cells and the bounding box
+        int minX = 2, maxX = 0, minY = 2, maxY = 0;
+        int cell = 0;
+        for(int bit = 0; bit < 9; bit++) {
+            if((pattern & (1 << bit)) == 0) continue;
+            int x = bit / 3;
+            int y = bit % 3;
+            cellX[cell] = x;
+            cellY[cell] = y;
+            cell++;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+
+        for(cell = 0; cell < count; cell++) {
+            rowMasks[cellY[cell] - minY] |= 1 << (cellX[cell] - minX);
+        }
+    }
+
+    /**
+     * Rotate a 9 bit pattern a quarter turn, matching the rotation of the 3x3 block grid
+     * @param pattern the pattern to rotate
+     * @return the rotated pattern
+     */
+    static int rotate(int pattern) {
+        int rotated = 0;
+        for(int bit = 0; bit < 9; bit++) {
+            if((pattern & (1 << bit)) == 0) continue;
+            int x = bit / 3;
+            int y = bit % 3;
+            //Block (x, y) moves to (2 - y, x)
+            rotated |= 1 << ((2 - y) * 3 + x);
+        }
+        return rotated;
+    }
+
+    /**
+     * Get the name of the piece this shape belongs to
+     * @return piece name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the packed pattern of this shape
+     * @return pattern with bit (blockX * 3 + blockY) set for each filled block
+     */
+    public int getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Check whether the block at the given position in the 3x3 grid is filled
+     * @param x column inside the 3x3 grid
+     * @param y row inside the 3x3 grid
+     * @return true if the block is filled
+     */
+    public boolean isFilled(int x, int y) {
+        return (pattern & (1 << (x * 3 + y))) != 0;
+    }
+
+    /**
+     * Get the smallest x of any filled block
+     * @return left of the bounding box
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Get the largest x of any filled block
+     * @return right of the bounding box
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Get the smallest y of any filled block
+     * @return top of the bounding box
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Get the largest y of any filled block
+     * @return bottom of the bounding box
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Get the filled blocks of one row of the bounding box, ready to be shifted into place on a board row
+     * @param row the row inside the bounding box, from 0 to getMaxY() - getMinY()
+     * @return mask with bit (blockX - getMinX()) set for each filled block in the row
+     */
+    public int getRowMask(int row) {
+        return rowMasks[row];
+    }
+
+    /**
+     * Get the number of filled blocks in this shape
+     * @return number of blocks
+     */
+    public int getCellCount() {
+        return cellX.length;
+    }
+
+    /**
+     * Get the x coordinate inside the 3x3 grid of a filled block
+     * @param cell index of the block, from 0 to getCellCount() - 1
+     * @return column of the block
+     */
+    public int getCellX(int cell) {
+        return cellX[cell];
+    }
+
+    /**
+     * Get the y coordinate inside the 3x3 grid of a filled block
+     * @param cell index of the block, from 0 to getCellCount() - 1
+     * @return row of the block
+     */
+    public int getCellY(int cell) {
+        return cellY[cell];
+    }
+
+    /**
+     * Return the string representation of this shape
+     * @return the name of the piece
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
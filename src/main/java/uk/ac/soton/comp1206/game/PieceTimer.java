@@ -0,0 +1,105 @@
+package uk.ac.soton.comp1206.game;
+
+import uk.ac.soton.comp1206.timer.TimerWheel;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Times each piece: once armed for a level, it runs its task if the piece is not placed within that level's delay.
+ * Used by the Game and by headless games on a virtual clock, so both follow exactly the same timing rules.
+ *
+ * A single Timeout is re-armed for every piece rather than a new one scheduled. Each arming is tagged with the
+ * generation of the piece it times, which is handed to the task so a timeout that was already on its way when the
+ * piece changed can be told apart and dropped.
+ */
+public class PieceTimer {
+
+    /**
+     * The wheel the timeout is scheduled on
+     */
+    private final TimerWheel timers;
+
+    /**
+     * The task run when the time for a piece runs out, given the generation of that piece
+     */
+    private final LongConsumer onTimeout;
+
+    /**
+     * The generation of the piece being timed
+     */
+    private volatile long generation;
+
+    /**
+     * The timeout, created the first time the timer is armed
+     */
+    private TimerWheel.Timeout timeout;
+
+    /**
+     * Whether the timer has been stopped for good
+     */
+    private boolean stopped = false;
+
+    /**
+     * Create a new piece timer
+     * @param timers the wheel to schedule on
+     * @param onTimeout the task to run when the time for a piece runs out, on the wheel's thread, given the generation
+     * of the piece
+     */
+    public PieceTimer(TimerWheel timers, LongConsumer onTimeout) {
+        this.timers = timers;
+        this.onTimeout = onTimeout;
+    }
+
+    /**
+     * Start timing a new piece, replacing any piece being timed
+     * @param level the current level, which sets the time allowed
+     * @param generation the generation of the new piece
+     * @return the time allowed in milliseconds, or 0 if the timer has been stopped
+     */
+    public int arm(int level, long generation) {
+        if(stopped) return 0;
+        int delay = GameCore.getTimerDelay(level);
+        if(timeout == null) {
+            this.generation = generation;
+            timeout = timers.schedule(this::expired, delay);
+        } else {
+            //Re-arm first, so a timeout firing meanwhile either keeps the old generation or sees it is pending again
+            timeout.rearm(delay);
+            this.generation = generation;
+        }
+        return delay;
+    }
+
+    /**
+     * Run the task for the piece being timed, unless the timer was re-armed for a new piece while firing
+     */
+    private void expired() {
+        long expiredGeneration = generation;
+        if(timeout.isPending()) return;
+        onTimeout.accept(expiredGeneration);
+    }
+
+    /**
+     * Stop the timer for good
+     */
+    public void stop() {
+        stopped = true;
+        if(timeout != null) timeout.cancel();
+    }
+
+    /**
+     * Check whether the timer has been stopped
+     * @return true once stop() has been called
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Get the time left for the current piece
+     * @return milliseconds remaining, 0 if not running
+     */
+    public long getRemaining() {
+        return timeout == null ? 0 : timeout.getRemaining();
+    }
+}
@@ -6,8 +6,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.CommunicationsListener;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Uses web sockets to talk to a web socket server and relays communication to attached listeners
@@ -20,8 +20,10 @@ public class Communicator {
 
     /**
      * Attached communication listeners listening to messages on this Communicator. Each will be sent any messages.
+     * Listeners are added and removed on the FX thread while messages arrive on the socket's thread, so the list is
+     * copied on write.
      */
-    private final List<CommunicationsListener> handlers = new ArrayList<>();
+    private final List<CommunicationsListener> handlers = new CopyOnWriteArrayList<>();
 
     private WebSocket ws = null;
 
@@ -100,6 +102,14 @@ public class Communicator {
         this.handlers.add(listener);
     }
 
+    /**
+     * Remove a listener so it receives no more messages
+     * @param listener the listener to remove
+     */
+    public void removeListener(CommunicationsListener listener) {
+        this.handlers.remove(listener);
+    }
+
     /**
      * Clear all current listeners
      */
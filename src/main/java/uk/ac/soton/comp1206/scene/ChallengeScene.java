@@ -7,29 +7,27 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
 import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.component.BlockSprites;
 import uk.ac.soton.comp1206.component.GameBlock;
 import uk.ac.soton.comp1206.component.GameBoard;
 import uk.ac.soton.comp1206.component.PieceBoard;
+import uk.ac.soton.comp1206.component.TimerBar;
 import uk.ac.soton.comp1206.event.GameLoopListener;
 import uk.ac.soton.comp1206.event.GameOverListener;
 import uk.ac.soton.comp1206.event.NextPieceListener;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.scores.ScoreStore;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 import uk.ac.soton.comp1206.utility.Multimedia;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-
 /**
  * The Single Player challenge scene. Holds the UI for the single player challenge mode in the game.
  */
@@ -40,6 +38,26 @@ public class ChallengeScene extends BaseScene {
      */
     private static final Logger logger = LogManager.getLogger(ChallengeScene.class);
 
+    /**
+     * The number of columns and rows of the standard board
+     */
+    public static final int DEFAULT_SIZE = 5;
+
+    /**
+     * The largest number of columns or rows a board may have
+     */
+    public static final int MAX_SIZE = 64;
+
+    /**
+     * The number of columns on the board
+     */
+    protected final int cols;
+
+    /**
+     * The number of rows on the board
+     */
+    protected final int rows;
+
     /**
      * The game instance for the current game being played.
      */
@@ -65,6 +83,11 @@ public class ChallengeScene extends BaseScene {
      */
     public GameLoopListener gameLoopListener;
 
+    /**
+     * The bar counting down the time left to place the current piece
+     */
+    protected TimerBar timerBar;
+
     /**
      * Gets the current game instance.
      *
@@ -91,8 +114,25 @@ public class ChallengeScene extends BaseScene {
      * @param gameWindow the Game Window
      */
     public ChallengeScene(GameWindow gameWindow) {
+        this(gameWindow, DEFAULT_SIZE, DEFAULT_SIZE);
+    }
+
+    /**
+     * Create a new Single Player challenge scene on a board of the given size
+     * @param gameWindow the Game Window
+     * @param cols number of columns, from 1 to 64
+     * @param rows number of rows, from 1 to 64
+     * @throws IllegalArgumentException if either dimension is out of range
+     */
+    public ChallengeScene(GameWindow gameWindow, int cols, int rows) {
         super(gameWindow);
-        logger.info("Creating Challenge Scene");
+        if(cols < 1 || rows < 1 || cols > MAX_SIZE || rows > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between 1x1 and " + MAX_SIZE + "x" + MAX_SIZE
+                + ", not " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        logger.info("Creating Challenge Scene with a {}x{} board", cols, rows);
     }
     /**
      * Initialise the scene and start the game
@@ -163,6 +203,14 @@ public class ChallengeScene extends BaseScene {
         pieceBoard = new PieceBoard(new Grid(3,3), gameWindow.getWidth()/5,gameWindow.getWidth()/5);
         followingPieceBoard = new PieceBoard(new Grid(3,3), gameWindow.getWidth()/7,gameWindow.getWidth()/7);
 
+        //Blocks are pre-rendered at screen resolution, so redraw them whenever the window is rescaled
+        root.scalarProperty().addListener((observable, oldScale, newScale) -> {
+            BlockSprites.setScale(newScale.doubleValue());
+            board.repaintAll();
+            pieceBoard.repaintAll();
+            followingPieceBoard.repaintAll();
+        });
+
         //Set the gameBoard as the centre
         mainPane.setCenter(board);
 
@@ -200,9 +248,13 @@ public class ChallengeScene extends BaseScene {
         multiplier.textProperty().bind(game.multiplierProperty().asString("%dx"));
         multiplier.getStyleClass().add("score");
 
-        //Add the highest score as a text
+        //Add the highest score as a text, filled in again once the local scores have loaded
         highScore = new Text("" + getHighScore());
         highScore.getStyleClass().add("hiscore");
+        ScoreStore.local().load().thenRun(() -> Platform.runLater(() -> {
+            //Once beaten, the text follows the player's own score instead
+            if(!highScore.textProperty().isBound()) highScore.setText("" + getHighScore());
+        }));
 
         //Add the level int as a text
         Text level = new Text();
@@ -240,7 +292,10 @@ public class ChallengeScene extends BaseScene {
         board.setOnRightClick(this::rightClicked);
 
         //Handle the game loop
-        gameLoopListener = timerDelay -> handleTimeBar(timerDelay, mainPane);
+        //The timer bar is created once and restarted for each piece
+        timerBar = new TimerBar(gameWindow.getWidth(), 40);
+        mainPane.setBottom(timerBar);
+        gameLoopListener = this::handleTimeBar;
     }
 
 
@@ -258,9 +313,8 @@ public class ChallengeScene extends BaseScene {
     protected void rightClicked(GameBoard board) {
         logger.info("Rotating piece: {}", game.getCurrentPiece());
         Multimedia.playAudio("rotate.wav");
-        //Reset the piece-board with the rotated piece
-        pieceBoard.resetGrid();
-        pieceBoard.displayPiece(game.rotatePiece());
+        //The piece-board is redrawn once the rotation has been applied
+        game.rotatePiece();
     }
 
 
@@ -272,7 +326,7 @@ public class ChallengeScene extends BaseScene {
         NextPieceListener nextPieceListener = (nextPiece, followingPiece) -> handleNextPieceListener(nextPiece, followingPiece);
         GameOverListener gameOverListener = lives -> handleGameOverListener(lives);
         //Start new game
-        game = new Game(5, 5);
+        game = new Game(cols, rows);
 
         game.setNextPieceListener(nextPieceListener);
         game.setGameOverListener(gameOverListener);
@@ -281,27 +335,13 @@ public class ChallengeScene extends BaseScene {
 
 
     /**
-     * Handles the creation and animation of the timer bar for the challengeScene
+     * Restarts the timer bar's countdown for a new piece
      *
      * @param timerDelay the time in milliseconds for the timer bar to go down
-     * @param mainPane the BorderPane where the timer bar will be displayed
      */
-    protected void handleTimeBar(int timerDelay, BorderPane mainPane) {
-        // Create the timer bar rectangle
+    protected void handleTimeBar(int timerDelay) {
         logger.info("Starting timerBar timer with {} seconds of time", timerDelay/1000);
-        Rectangle timerBar = new Rectangle();
-        timerBar.setWidth(gameWindow.getWidth());
-        timerBar.setHeight(40);
-        timerBar.setFill(Color.GREEN);
-        mainPane.setBottom(timerBar);
-
-        // Create the animation that will update the timer bar
-        Timeline timeline = new Timeline(
-                new KeyFrame(new Duration((double)timerDelay * 0.5), new KeyValue(timerBar.fillProperty(), Color.YELLOW)),
-                new KeyFrame(new Duration((double)timerDelay * 0.75), new KeyValue(timerBar.fillProperty(), Color.RED)),
-                new KeyFrame(new Duration((double)timerDelay), new KeyValue(timerBar.widthProperty(), 0)));
-        timeline.setCycleCount(Animation.INDEFINITE);
-        timeline.play();
+        timerBar.start(timerDelay);
     }
 
     /**
@@ -324,43 +364,27 @@ public class ChallengeScene extends BaseScene {
             gameWindow.loadScene(new MenuScene(gameWindow));
             Multimedia.stopMusic();
             game.stopTimer();
+            timerBar.stop();
         }
         else if(event.getCode() == KeyCode.R || event.getCode() == KeyCode.SPACE) {
-            //If R or space is pressed, rotate the board
+            //If R or space is pressed, swap the pieces. The game plays the sound and redraws the piece-boards.
             game.swapCurrentPiece();
-            pieceBoard.resetGrid();
-            pieceBoard.displayPiece(game.getCurrentPiece());
-            followingPieceBoard.resetGrid();
-            followingPieceBoard.displayPiece(game.getFollowingPiece());
-            Multimedia.playAudio("transition.wav");
 
         }
         else if(event.getCode() == KeyCode.Q || event.getCode() == KeyCode.Z || event.getCode() == KeyCode.BRACELEFT) {
             //If Q, Z or BRACELEFT is pressed, rotate the piece left
-            game.rotatePiece();
-            game.rotatePiece();
-            game.rotatePiece();
-            pieceBoard.resetGrid();
-            pieceBoard.displayPiece(game.getCurrentPiece());
+            game.rotatePiece(3);
             Multimedia.playAudio("rotate.wav");
         }
         else if(event.getCode() == KeyCode.E || event.getCode() == KeyCode.C || event.getCode() == KeyCode.BRACERIGHT) {
             //If E, c or BRACERIGHT is pressed, rotate the piece right
             game.rotatePiece();
-            pieceBoard.resetGrid();
-            pieceBoard.displayPiece(game.getCurrentPiece());
             Multimedia.playAudio("rotate.wav");
         }
         //If enter is pressed, play the piece
         else if(event.getCode() == KeyCode.ENTER || event.getCode() == KeyCode.X) {
-            //If piece cant be played, play noise
-            if(!(game.getGrid().canPlayPiece(game.getCurrentPiece(), game.getCurrentX(), game.getCurrentY()))) {
-                Multimedia.playAudio("fail.wav");
-            }
-            else {
-                //Play the piece
-                game.blockClicked(board.getBlock(game.getCurrentX(), game.getCurrentY()));
-            }
+            //Play the piece, the game plays the fail noise if it cannot be played
+            game.blockClicked(board.getBlock(game.getCurrentX(), game.getCurrentY()));
 
         }
         else if(event.getCode() == KeyCode.W || event.getCode() == KeyCode.UP) {
@@ -377,13 +401,13 @@ public class ChallengeScene extends BaseScene {
             board.getBlock(game.getCurrentX() + 1, game.getCurrentY()).removeHover();
         }
         else if(event.getCode() == KeyCode.S || event.getCode() == KeyCode.DOWN) {
-            if(game.getCurrentY() == 4) return;
+            if(game.getCurrentY() == game.getGrid().getRows() - 1) return;
             game.setCurrentY(game.getCurrentY() + 1);
             board.getBlock(game.getCurrentX(), game.getCurrentY()).drawHover(board.getBlock(game.getCurrentX(), game.getCurrentY()).getColor());
             board.getBlock(game.getCurrentX(), game.getCurrentY() - 1).removeHover();
         }
         else if(event.getCode() == KeyCode.D || event.getCode() == KeyCode.RIGHT) {
-            if(game.getCurrentX() == 4) return;
+            if(game.getCurrentX() == game.getGrid().getCols() - 1) return;
             game.setCurrentX(game.getCurrentX() + 1);
             board.getBlock(game.getCurrentX(), game.getCurrentY()).drawHover(board.getBlock(game.getCurrentX(), game.getCurrentY()).getColor());
             board.getBlock(game.getCurrentX() - 1, game.getCurrentY()).removeHover();
@@ -394,9 +418,8 @@ public class ChallengeScene extends BaseScene {
      * Handles when the piece-board gets clicked on to rotate current piece
      */
     protected void handlePieceBoardBlockClicked() {
-        //Rotate the piece and reset the grid
-        pieceBoard.resetGrid();
-        pieceBoard.displayPiece(game.rotatePiece());
+        //Rotate the piece, the grid is reset once the rotation has been applied
+        game.rotatePiece();
         Multimedia.playAudio("rotate.wav");
     }
 
@@ -404,13 +427,8 @@ public class ChallengeScene extends BaseScene {
      * Handles what happens when the following PieceBoard is clicked on and pieces swap
      */
     protected void handleFollowingPieceBoardBlockClicked() {
-        //Swaps the following piece and resets both grids
+        //Swaps the following piece, both grids are reset once the swap has been applied
         game.swapCurrentPiece();
-        pieceBoard.resetGrid();
-        //For both boards, display the corresponding next piece
-        pieceBoard.displayPiece(game.getCurrentPiece());
-        followingPieceBoard.resetGrid();
-        followingPieceBoard.displayPiece(game.getFollowingPiece());
     }
 
     /**
@@ -444,6 +462,7 @@ public class ChallengeScene extends BaseScene {
     protected void startScoresScene() {
         //Stop the timer
         game.stopTimer();
+        timerBar.stop();
         Multimedia.stopMusic();
         this.gameWindow.cleanup();
         //Start the scoresScene
@@ -451,22 +470,11 @@ public class ChallengeScene extends BaseScene {
     }
 
     /**
-     * Gets the highest score to beat from a text file containing highs-cores
-     * @return highScore the highest score to beat
+     * Gets the highest score to beat from the local scores held in memory
+     * @return highScore the highest score to beat, or 0 until the local scores have loaded
      */
     protected int getHighScore() {
-        int highScore = 0;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader("src/main/resources/scores/scores.txt"))) {
-            String line = reader.readLine(); // read only the first line
-            int index = line.indexOf(":"); // find the index of the colon
-            String scoreStr = line.substring(index + 1).trim(); // extract the score string
-            highScore = Integer.parseInt(scoreStr); // convert the score string to an integer
-            // use the score variable as needed
-        } catch (IOException e) {
-            System.err.println("Error reading scores from file: " + e.getMessage());
-        }
-        return highScore;
+        return ScoreStore.local().getBest();
     }
 
     /**
@@ -475,7 +483,8 @@ public class ChallengeScene extends BaseScene {
      */
     protected void handleNewHighScore() {
         int newHighScore = game.scoreProperty().get();
-        if (newHighScore > getHighScore() && !shake) {
+        //Until the local scores have loaded there is no score to beat yet
+        if (ScoreStore.local().isLoaded() && newHighScore > getHighScore() && !shake) {
             highScore.textProperty().unbind();
             highScore.textProperty().bind(game.scoreProperty().asString("%d"));
 
@@ -15,8 +15,8 @@ import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.game.Grid;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.utility.Assets;
 import uk.ac.soton.comp1206.utility.Multimedia;
-import java.util.Objects;
 
 /**
  * The instruction scene is a visual demonstration of how the game should be
@@ -75,7 +75,7 @@ public class InstructionScene extends BaseScene{
         root.getChildren().add(mainPane);
 
         //Load and set the instruction image to fit the window
-        Image instructionImage = new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/Instructions.png")));
+        Image instructionImage = Assets.getImage("/images/Instructions.png");
         ImageView instructionImageView = new ImageView(instructionImage);            //Set it to fit in the gameWindow
         instructionImageView.setFitWidth((gameWindow.getWidth()/1.5));
         instructionImageView.setPreserveRatio(true);
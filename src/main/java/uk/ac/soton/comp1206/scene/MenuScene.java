@@ -17,9 +17,9 @@ import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.App;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.utility.Assets;
 import uk.ac.soton.comp1206.utility.Multimedia;
 
-import java.util.Objects;
 
 /**
  * The main menu of the game. Provides a gateway to the rest of the game.
@@ -72,7 +72,7 @@ public class MenuScene extends BaseScene {
         //Title
         try{
             // Load the imag
-            Image tetrecsLogoImage = new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/TetrECS.png")));
+            Image tetrecsLogoImage = Assets.getImage("/images/TetrECS.png");
             ImageView tetrecsLogo = new ImageView(tetrecsLogoImage);
 
             //Set it to fit in the gameWindow
@@ -1,6 +1,5 @@
 package uk.ac.soton.comp1206.scene;
-import javafx.beans.property.SimpleListProperty;
-import javafx.collections.FXCollections;
+import javafx.application.Platform;
 import javafx.geometry.HPos;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
@@ -17,15 +16,19 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.component.GameBlockCoordinate;
 import uk.ac.soton.comp1206.component.ScoresList;
+import uk.ac.soton.comp1206.event.CommunicationsListener;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.scores.ScoreStore;
+import uk.ac.soton.comp1206.scores.TopScores;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 import uk.ac.soton.comp1206.utility.Multimedia;
-import java.io.*;
+
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Scores scene dynamically reveals the online high scores and the local high scores, as well as
@@ -39,21 +42,13 @@ public class ScoresScene extends BaseScene{
      */
     private static final Logger logger = LogManager.getLogger(uk.ac.soton.comp1206.scene.ScoresScene.class);
     /**
-     * The array list to hold the local scores
-     */
-    private ArrayList<Pair<String, Integer>> localScoresArrayList;
-    /**
-     * The array list to hold the remote scores
-     */
-    private ArrayList<Pair<String, Integer>> remoteScoresArrayList;
-    /**
-     * The wrapper that allows the local scores arraylist to be bound to
+     * The top local scores
      */
-    private SimpleListProperty<Pair<String, Integer>> localScoresArrayListProperty;
+    private TopScores localScores;
     /**
-     * The wrapper that allows the remote scores arraylist to be bound to
+     * The top remote scores
      */
-    private SimpleListProperty<Pair<String, Integer>> remoteScoresArrayListProperty;
+    private TopScores remoteScores;
     /**
      * The communicator field variable for the class
      */
@@ -133,10 +128,17 @@ public class ScoresScene extends BaseScene{
      */
     private boolean scoresHaveBeenShown = false;
     /**
-     * File root for the local scores
+     * boolean field variable to keep track of whether the local and online scores have loaded
      */
-
-    private static final String fileName = "src/main/resources/scores/scores.txt";
+    private boolean scoresLoaded = false;
+    /**
+     * How long to wait for the online scores, in milliseconds, before using the last ones received
+     */
+    private static final long ONLINE_TIMEOUT = 3000;
+    /**
+     * The online scores last received from the server
+     */
+    private static volatile List<Pair<String, Integer>> cachedOnlineScores = List.of();
 
 
     /**
@@ -150,132 +152,129 @@ public class ScoresScene extends BaseScene{
         this.communicator = gameWindow.getCommunicator();
         Multimedia.playFileOnce("/music/end.wav", "menu.mp3");
         logger.info("Creating Scores Scene");
-        localScoresArrayList = new ArrayList<>();
-        remoteScoresArrayList = new ArrayList<>();
-        localScoresArrayListProperty = new SimpleListProperty<>();
-        remoteScoresArrayListProperty = new SimpleListProperty<>();
+        localScores = new TopScores(ScoreStore.CAPACITY);
+        remoteScores = new TopScores(ScoreStore.CAPACITY);
         localScoresList = new ScoresList();
         remoteScoresList = new ScoresList();
         numButtonClicks = 0;
     }
 
     /**
-     * Initialise teh ScoresScene
+     * Initialise teh ScoresScene. The scene shows straight away, while the local and online scores load in the
+     * background, and fills in once both are ready.
      */
     @Override
     public void initialise() {
         logger.info("Initialising Scores Scene");
 
         scene.setOnKeyPressed(this::handleKeyPressed);
-        checkIfFileExists();
-        loadScores();
-        loadOnlineScores("HISCORES");
+        Text loadingText = new Text("Loading scores...");
+        loadingText.getStyleClass().add("heading");
+        mainPane.setCenter(loadingText);
+
+        CompletableFuture<List<Pair<String, Integer>>> local = ScoreStore.local().load()
+            .thenApply(loaded -> ScoreStore.local().getScores());
+        CompletableFuture<List<Pair<String, Integer>>> online = loadOnlineScores();
+        local.thenAcceptBoth(online, (localLoaded, onlineLoaded) ->
+            Platform.runLater(() -> scoresLoaded(localLoaded, onlineLoaded)));
+    }
+
+    /**
+     * Show the scores once they have all loaded
+     * @param local the top local scores
+     * @param online the top online scores
+     */
+    private void scoresLoaded(List<Pair<String, Integer>> local, List<Pair<String, Integer>> online) {
+        logger.info("Loaded {} local and {} online scores", local.size(), online.size());
+        loadScores(local);
+        for (Pair<String, Integer> score : online) {
+            remoteScores.add(score.getKey(), score.getValue());
+        }
         checkLocalScoreHasBeenBeaten();
         checkRemoteScoreHasBeenBeaten();
-        sortScores(localScoresArrayList);
-        sortScores(remoteScoresArrayList);
+        scoresLoaded = true;
         handleIfScoreBeaten();
     }
 
     /**
-     * A checker to see if the files exist, if it doesn't, then generate random scores
-     */
-    private void checkIfFileExists() {
-        File file = new File(fileName);
-        boolean fileExists = file.exists();
-        if (!fileExists) {
-            logger.info("Could not find the scores file");
-            // Write default list of scores to file
-            localScoresArrayList.add(new Pair<>("Oli", 10000));
-            localScoresArrayList.add(new Pair<>("Oli", 9000));
-            localScoresArrayList.add(new Pair<>("Oli", 8000));
-            localScoresArrayList.add(new Pair<>("Oli", 7000));
-            localScoresArrayList.add(new Pair<>("Oli", 6000));
-            localScoresArrayList.add(new Pair<>("Oli", 5000));
-            localScoresArrayList.add(new Pair<>("Oli", 4000));
-            localScoresArrayList.add(new Pair<>("Oli", 3000));
-            localScoresArrayList.add(new Pair<>("Oli", 2000));
-            localScoresArrayList.add(new Pair<>("Oli", 1000));
+     * Load the top local scores. A new score store already starts from the default scores the game ships with and
+     * keeps them, so nothing is made up here that would vanish next time.
+     * @param scores the top local scores
+     */
+    private void loadScores(List<Pair<String, Integer>> scores) {
+        for (Pair<String, Integer> score : scores) {
+            localScores.add(score.getKey(), score.getValue());
         }
-        checkLocalScoreHasBeenBeaten();
+        if (localScores.size() == 0) logger.info("There are no local scores");
     }
 
     /**
-     * Load scores from the file path and add them to the localScoresArrayList
+     * Ask the server for the online scores. If it does not answer in time, or the answer cannot be read, the online
+     * scores last received are used instead.
+     * @return a future completed with the online scores
      */
-    private void loadScores() {
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            String line;
-
-            while ((line = br.readLine()) != null && !line.isEmpty()) {
-                String[] parts = line.split(":");
-                String name = parts[0].trim();
-                int score = Integer.parseInt(parts[1].trim());
-                localScoresArrayList.add(new Pair<>(name, score));
+    private CompletableFuture<List<Pair<String, Integer>>> loadOnlineScores() {
+        CompletableFuture<List<Pair<String, Integer>>> received = new CompletableFuture<>();
+        CommunicationsListener listener = communication -> {
+            if (!communication.startsWith("HISCORES")) return;
+            try {
+                received.complete(parseOnlineScores(communication));
+            } catch (RuntimeException e) {
+                received.completeExceptionally(e);
             }
-        } catch (IOException e) {
-            System.err.format("IOException: %s%n", e);
+        };
+        communicator.addListener(listener);
+        received.whenComplete((scores, error) -> communicator.removeListener(listener));
+        CompletableFuture.runAsync(() -> communicator.send("HISCORES"));
+        logger.info("Receiving online scores");
 
-        }
+        return received
+            .orTimeout(ONLINE_TIMEOUT, TimeUnit.MILLISECONDS)
+            .thenApply(scores -> {
+                cachedOnlineScores = scores;
+                return scores;
+            })
+            .exceptionally(error -> {
+                logger.warn("Using the last online scores received: {}", error.toString());
+                return cachedOnlineScores;
+            });
     }
 
     /**
-     * Retrieve the online scores using communicator, and store the scores in remoteScoresArrayList
-     * @param s
+     * Read the online scores from a HISCORES message
+     * @param communication the message
+     * @return the scores, in the order the server sent them
      */
-    private void loadOnlineScores(String s) {
-        communicator.send(s);
-        logger.info("Receiving online scores");
-        communicator.addListener(communication -> {
-            String[] lines = communication.split("\n");
-            for (String line : lines) {
-                if(line.contains("HISCORES ")) {
-                    line = line.replace("HISCORES ", "");
-                }
-                String[] parts = line.split(":", 2);
-                var name = parts[0];
-                var score = Integer.parseInt(parts[1]);
-                var pair = new Pair<>(name, score);
-                remoteScoresArrayList.add(pair);
+    private static List<Pair<String, Integer>> parseOnlineScores(String communication) {
+        List<Pair<String, Integer>> scores = new ArrayList<>();
+        String[] lines = communication.split("\n");
+        for (String line : lines) {
+            if(line.contains("HISCORES ")) {
+                line = line.replace("HISCORES ", "");
             }
-            checkRemoteScoreHasBeenBeaten();
-        });
+            if(line.isBlank()) continue;
+            String[] parts = line.split(":", 2);
+            scores.add(new Pair<>(parts[0], Integer.parseInt(parts[1].trim())));
+        }
+        return List.copyOf(scores);
     }
 
     /**
-     * Writes scores to the local scores file
+     * Records a new local high score in the score store, which appends it to the local score journal
      */
     private void writeScores() {
-        logger.info("Writing scores to {}", fileName);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName, false))) {
-            File file = new File(fileName);
-            boolean fileExists = file.exists();
-            if (!fileExists) {
-                logger.info("Could not find the scores file");
-                // Write default list of scores to file
-                localScoresArrayList.add(new Pair<>("Player 1", 10000));
-                localScoresArrayList.add(new Pair<>("Player 2", 9000));
-                localScoresArrayList.add(new Pair<>("Player 3", 8000));
-            }
-
-            // Clear the file before writing scores
-            new FileWriter(fileName, false).close();
-
-            // Sort and write the scores to the file
-            sortScores(localScoresArrayList);
-            for(Pair pair : localScoresArrayList) {
-                writer.write(pair.getKey() + ": " + pair.getValue() + "\n");
-            }
-        } catch (IOException e) {
-            System.err.println("Error writing scores to file: " + e.getMessage());
-        }
+        if (!localScoreHasBeenBeaten) return;
+        logger.info("Recording local score {}: {}", nameText, game.getScore());
+        ScoreStore.local().record(nameText, game.getScore());
     }
 
     /**
-     * Sends the server the score
+     * Sends the server the score, if it made the online leaderboard and the player has given a name for it
      * @param nameText the name of the player
      */
     private void writeOnlineScore(String nameText) {
+        if (!remoteScoreHasBeenBeaten || nameText == null || nameText.isBlank()) return;
+        logger.info("Sending online score {}: {}", nameText, game.getScore());
         communicator.send("HISCORE <" + nameText + ">:<" + game.getScore() + ">");
     }
 
@@ -410,7 +409,7 @@ public class ScoresScene extends BaseScene{
             } else {
                 nameText = nameField.getText();
             }
-            localScoresArrayList.add(new Pair<>(nameText, game.getScore()));
+            localScores.add(nameText, game.getScore());
             logger.info("Added new local score: {}: {}", nameText, game.getScore());
         }
         if(remoteScoreHasBeenBeaten) {
@@ -421,21 +420,15 @@ public class ScoresScene extends BaseScene{
 
                 nameText = nameField.getText();
             }
-            remoteScoresArrayList.add(new Pair<>(nameText, game.getScore()));
+            remoteScores.add(nameText, game.getScore());
             logger.info("Added new remote score: {}: {}", nameText, game.getScore());
         }
 
         writeOnlineScore(nameText);
         writeScores();
 
-        sortScores(localScoresArrayList);
-        sortScores(remoteScoresArrayList);
-
-        localScoresArrayListProperty.set(FXCollections.observableArrayList(localScoresArrayList));
-        remoteScoresArrayListProperty.set(FXCollections.observableArrayList(remoteScoresArrayList));
-
-        localScoresList.scoresProperty().bind(localScoresArrayListProperty);
-        remoteScoresList.scoresProperty().bind(remoteScoresArrayListProperty);
+        localScoresList.scoresProperty().set(localScores.getView());
+        remoteScoresList.scoresProperty().set(remoteScores.getView());
 
         //Once button has been clicked, mainPane updates with the ScoreBox containing scoresList
         HBox mainHBox = new HBox();
@@ -476,7 +469,7 @@ public class ScoresScene extends BaseScene{
             Multimedia.stopMusic();
             gameWindow.loadScene(new MenuScene(gameWindow));
         }
-        else if(event.getCode() == KeyCode.ENTER) {
+        else if(event.getCode() == KeyCode.ENTER && scoresLoaded) {
             showScores();
         }
     }
@@ -517,11 +510,9 @@ public class ScoresScene extends BaseScene{
      * Checker to see if the local score has been beaten
      */
     private void checkLocalScoreHasBeenBeaten() {
-        for(var i = 0; i < Math.min(localScoresArrayList.size(), 10); i++) {
-            if(localScoresArrayList.get(i).getValue() < game.getScore() && !localScoreHasBeenBeaten || localScoresArrayList.size() <= 10 && !localScoreHasBeenBeaten) {
-                localScoreHasBeenBeaten = true;
-                logger.info("New Local Highscore!");
-            }
+        if(!localScoreHasBeenBeaten && localScores.wouldRank(game.getScore())) {
+            localScoreHasBeenBeaten = true;
+            logger.info("New Local Highscore!");
         }
     }
 
@@ -529,21 +520,10 @@ public class ScoresScene extends BaseScene{
      * Checker to see if online scores has been beaten
      */
     private void checkRemoteScoreHasBeenBeaten() {
-        for(var i = 0; i < Math.min(remoteScoresArrayList.size(), 10); i++) {
-            if(remoteScoresArrayList.get(i).getValue() < game.getScore() && !remoteScoreHasBeenBeaten || remoteScoresArrayList.size() <= 10 && !remoteScoreHasBeenBeaten) {
-                remoteScoreHasBeenBeaten = true;
-                logger.info("New Remote Highscore!");
-            }
+        //Until the online scores arrive there is nothing to have beaten
+        if(!remoteScoreHasBeenBeaten && remoteScores.size() > 0 && remoteScores.wouldRank(game.getScore())) {
+            remoteScoreHasBeenBeaten = true;
+            logger.info("New Remote Highscore!");
         }
     }
-
-    /**
-     * Method for sorting scores in an arrayList
-     * @param arrayList
-     */
-    private void sortScores(ArrayList arrayList) {
-        Comparator<Pair<String, Integer>> comparator = Comparator.comparing(Pair::getValue);
-        comparator = comparator.reversed();
-        Collections.sort(arrayList, comparator);
-    }
 }
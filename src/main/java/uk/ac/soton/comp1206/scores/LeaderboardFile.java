@@ -0,0 +1,313 @@
+package uk.ac.soton.comp1206.scores;
+
+import javafx.util.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A binary file of every local score, read and written through memory maps.
+ *
+ * The file starts with a one page header, followed by fixed size records in the order they were added. The header
+ * holds the number of records, the last journal generation they include, and an index of the best records, best
+ * first. Reading the top scores only touches the header and the pages holding those records, however many scores are
+ * stored, and adding scores costs the same however many there are.
+ *
+ * Records are written and synced before the header that counts them, so a crash part way through adding scores
+ * leaves the file as it was before. A file whose header was never synced, left by a crash while it was being created,
+ * reads as all zeros and is set up again as a new empty file.
+ */
+public class LeaderboardFile {
+
+    /**
+     * Logger for keeping track of events
+     */
+    private static final Logger logger = LogManager.getLogger(LeaderboardFile.class);
+
+    /**
+     * The number of records in the header's index of the best records
+     */
+    public static final int TOP = 10;
+
+    /**
+     * Marks the start of a leaderboard file
+     */
+    private static final int MAGIC = 0x54454353;
+
+    /**
+     * The version of the file layout
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the header, one page so that records start on a page boundary
+     */
+    private static final int HEADER_SIZE = 4096;
+
+    /**
+     * The size of each record: the score, the length of the name, then the name in UTF-8
+     */
+    private static final int RECORD_SIZE = 32;
+
+    /**
+     * The longest name that fits in a record, in bytes
+     */
+    private static final int MAX_NAME = RECORD_SIZE - 5;
+
+    /**
+     * The number of records the file grows by when it fills up
+     */
+    private static final int GROWTH = 4096;
+
+    /**
+     * Where the header fields are
+     */
+    private static final int MAGIC_OFFSET = 0, VERSION_OFFSET = 4, GENERATION_OFFSET = 8, COUNT_OFFSET = 16,
+        TOP_COUNT_OFFSET = 20, INDEX_OFFSET = 24;
+
+    /**
+     * The open file
+     */
+    private final FileChannel channel;
+
+    /**
+     * The header, mapped
+     */
+    private final MappedByteBuffer header;
+
+    /**
+     * The records, mapped, or null if there is no room for any yet
+     */
+    private MappedByteBuffer records;
+
+    /**
+     * The number of records there is room for in the mapping
+     */
+    private int capacity;
+
+    /**
+     * The number of records stored
+     */
+    private int count;
+
+    /**
+     * The best records, best first, as record numbers
+     */
+    private final int[] top = new int[TOP];
+
+    /**
+     * The scores of the best records, so finding where a new score goes needs no record reads
+     */
+    private final int[] topScores = new int[TOP];
+
+    /**
+     * The number of entries in the index
+     */
+    private int topCount;
+
+    /**
+     * Open a leaderboard file, creating an empty one if there is none or if it was never set up
+     * @param path the file
+     * @throws IOException if the file cannot be opened or is not a leaderboard file
+     */
+    public LeaderboardFile(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean created = channel.size() == 0;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            //A crash before the first header was synced leaves it all zeros, with no records counted
+            if(!created && header.getInt(MAGIC_OFFSET) == 0 && header.getInt(COUNT_OFFSET) == 0) {
+                logger.warn("{} was never set up, starting it again", path);
+                created = true;
+            }
+            if(created) {
+                header.putInt(MAGIC_OFFSET, MAGIC);
+                header.putInt(VERSION_OFFSET, VERSION);
+                header.putLong(GENERATION_OFFSET, -1);
+                header.force();
+            } else if(header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException(path + " is not a leaderboard file");
+            }
+            count = header.getInt(COUNT_OFFSET);
+            topCount = header.getInt(TOP_COUNT_OFFSET);
+            capacity = (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+            //Check the header against the file before reading any records, as a file cut short can count records
+            //it does not hold
+            if(count < 0 || count > capacity) {
+                throw new IOException(path + " is not a leaderboard file: it counts " + count
+                    + " records but has room for " + capacity);
+            }
+            if(topCount < 0 || topCount > Math.min(count, TOP)) {
+                throw new IOException(path + " is not a leaderboard file: its index has " + topCount + " entries");
+            }
+            if(capacity > 0) records = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE,
+                (long) capacity * RECORD_SIZE);
+            for(var i = 0; i < topCount; i++) {
+                top[i] = header.getInt(INDEX_OFFSET + i * 4);
+                if(top[i] < 0 || top[i] >= count) {
+                    throw new IOException(path + " is not a leaderboard file: its index points at record " + top[i]);
+                }
+                topScores[i] = records.getInt(top[i] * RECORD_SIZE);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the last journal generation whose scores have been added
+     * @return the generation, or -1 if none have
+     */
+    public synchronized long getGeneration() {
+        return header.getLong(GENERATION_OFFSET);
+    }
+
+    /**
+     * Check whether no scores have been added, not even by an import that was cut short
+     * @return true if there are no records and no journal generation has been added
+     */
+    public synchronized boolean isEmpty() {
+        return count == 0 && getGeneration() == -1;
+    }
+
+    /**
+     * Get the number of scores stored
+     * @return the number of scores
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the best scores from the index
+     * @return up to TOP scores, best first
+     */
+    public synchronized List<Pair<String, Integer>> getTop() {
+        List<Pair<String, Integer>> scores = new ArrayList<>(topCount);
+        for(var i = 0; i < topCount; i++) {
+            scores.add(read(top[i]));
+        }
+        return scores;
+    }
+
+    /**
+     * Read a record
+     * @param record the record number
+     * @return the score in it
+     */
+    private Pair<String, Integer> read(int record) {
+        int offset = record * RECORD_SIZE;
+        int length = records.get(offset + 4) & 0xFF;
+        byte[] name = new byte[Math.min(length, MAX_NAME)];
+        records.get(offset + 5, name);
+        return new Pair<>(new String(name, StandardCharsets.UTF_8), records.getInt(offset));
+    }
+
+    /**
+     * Add scores, then record that every journal up to a generation has been added. The records are synced before
+     * the header that counts them.
+     * @param scores the scores to add
+     * @param generation the last journal generation the scores come from
+     * @throws IOException if the file cannot grow or be synced
+     */
+    public synchronized void add(List<Pair<String, Integer>> scores, long generation) throws IOException {
+        int[] oldTop = top.clone();
+        int[] oldTopScores = topScores.clone();
+        int oldTopCount = topCount;
+        try {
+            ensureCapacity(count + scores.size());
+            int added = count;
+            for(Pair<String, Integer> score : scores) {
+                write(added, score.getKey(), score.getValue());
+                index(added, score.getValue());
+                added++;
+            }
+            if(records != null) records.force();
+
+            //Only now that the records are safe does the header count them
+            for(var i = 0; i < topCount; i++) {
+                header.putInt(INDEX_OFFSET + i * 4, top[i]);
+            }
+            header.putInt(TOP_COUNT_OFFSET, topCount);
+            header.putInt(COUNT_OFFSET, added);
+            header.putLong(GENERATION_OFFSET, generation);
+            header.force();
+            count = added;
+        } catch (IOException | RuntimeException e) {
+            //Forget the records that were not counted, so the index never points at them
+            System.arraycopy(oldTop, 0, top, 0, TOP);
+            System.arraycopy(oldTopScores, 0, topScores, 0, TOP);
+            topCount = oldTopCount;
+            throw e;
+        }
+    }
+
+    /**
+     * Write a record
+     * @param record the record number
+     * @param name the player's name, cut short if it does not fit
+     * @param score the score
+     */
+    private void write(int record, String name, int score) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        //Cut the name at the start of a character rather than part way through one
+        if(length > MAX_NAME) {
+            length = MAX_NAME;
+            while(length > 0 && (bytes[length] & 0xC0) == 0x80) length--;
+        }
+        int offset = record * RECORD_SIZE;
+        records.putInt(offset, score);
+        records.put(offset + 4, (byte) length);
+        records.put(offset + 5, bytes, 0, length);
+    }
+
+    /**
+     * Put a new record into the index if it is one of the best. Equal scores keep their order, so a new score goes
+     * after any it ties with.
+     * @param record the record number
+     * @param score its score
+     */
+    private void index(int record, int score) {
+        int rank = topCount;
+        while(rank > 0 && topScores[rank - 1] < score) rank--;
+        if(rank >= TOP) return;
+        int moved = Math.min(topCount, TOP - 1) - rank;
+        System.arraycopy(top, rank, top, rank + 1, moved);
+        System.arraycopy(topScores, rank, topScores, rank + 1, moved);
+        top[rank] = record;
+        topScores[rank] = score;
+        topCount = Math.min(topCount + 1, TOP);
+    }
+
+    /**
+     * Make sure there is room for a number of records, growing the file and its mapping if needed
+     * @param needed the number of records
+     * @throws IOException if the file cannot grow
+     */
+    private void ensureCapacity(int needed) throws IOException {
+        if(needed <= capacity) return;
+        int grown = Math.max(needed, capacity + GROWTH);
+        //Mapping past the end of the file grows it
+        records = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, (long) grown * RECORD_SIZE);
+        capacity = grown;
+        logger.debug("Grew the leaderboard to {} records", grown);
+    }
+
+    /**
+     * Close the file
+     * @throws IOException if it cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
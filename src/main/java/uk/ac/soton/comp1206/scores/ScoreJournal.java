@@ -0,0 +1,458 @@
+package uk.ac.soton.comp1206.scores;
+
+import javafx.util.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stores every local score durably in a data directory, as a LeaderboardFile plus append-only journals of the scores
+ * recorded since.
+ *
+ * Recording a score only queues a line. A single writer thread appends everything queued in one write and one fsync,
+ * so a burst of scores costs one sync. Once enough scores have been journalled, the writer moves on to a new journal
+ * and adds the old ones to the leaderboard file.
+ *
+ * Journals are numbered by generation, and the leaderboard file records the last generation it includes in the same
+ * synced header write that counts the new scores. A crash at any point leaves either the old leaderboard and all its
+ * journals, or the new leaderboard and the journals after it, so no score is lost or counted twice. A line torn by a
+ * crash part way through an append is skipped.
+ */
+public class ScoreJournal {
+
+    /**
+     * Logger for keeping track of events
+     */
+    private static final Logger logger = LogManager.getLogger(ScoreJournal.class);
+
+    /**
+     * The number of scores journalled before they are folded into the snapshot
+     */
+    private static final int COMPACT_AFTER = 100;
+
+    /**
+     * The start of the first line of the snapshot, followed by the last generation it includes
+     */
+    private static final String HEADER = "# generation ";
+
+    /**
+     * The scores the game ships with, used to start a new snapshot
+     */
+    private static final String DEFAULT_SCORES = "/scores/scores.txt";
+
+    /**
+     * Where scores were kept before they had a data directory, relative to the working directory
+     */
+    private static final Path LEGACY_SCORES = Path.of("src/main/resources/scores/scores.txt");
+
+    /**
+     * The directory the scores are kept in
+     */
+    private final Path directory;
+
+    /**
+     * The leaderboard file of every score up to its generation
+     */
+    private final Path leaderboardPath;
+
+    /**
+     * A text snapshot of every score, kept before there was a leaderboard file and imported into it
+     */
+    private final Path textSnapshot;
+
+    /**
+     * The open leaderboard file, or null before loading
+     */
+    private LeaderboardFile leaderboard;
+
+    /**
+     * The lines waiting to be appended
+     */
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether a flush of the pending lines has been queued on the writer
+     */
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    /**
+     * The writer thread, which does all the file work after loading
+     */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Score Journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The journal being appended to, or null before loading
+     */
+    private FileChannel journal;
+
+    /**
+     * The generation of the journal being appended to
+     */
+    private long generation;
+
+    /**
+     * The number of scores journalled since they were last added to the leaderboard file
+     */
+    private int journalled;
+
+    /**
+     * Create a new journal kept in a directory. Nothing is read or written until it is loaded.
+     * @param directory the directory to keep the scores in
+     */
+    public ScoreJournal(Path directory) {
+        this.directory = directory;
+        this.leaderboardPath = directory.resolve("scores.bin");
+        this.textSnapshot = directory.resolve("scores.txt");
+    }
+
+    /**
+     * Get the directory scores are kept in by default: the one given by the tetrecs.data system property, or
+     * .tetrecs in the user's home directory
+     * @return the data directory
+     */
+    public static Path defaultDirectory() {
+        String data = System.getProperty("tetrecs.data");
+        if(data != null) return Path.of(data);
+        return Path.of(System.getProperty("user.home"), ".tetrecs");
+    }
+
+    /**
+     * Read the best scores from the leaderboard file and every score from the journals after it, and open a new
+     * journal to append to
+     * @return the leaderboard's best scores followed by the journalled scores, in no particular order
+     * @throws IOException if the directory cannot be read or the files cannot be opened
+     */
+    public synchronized List<Pair<String, Integer>> load() throws IOException {
+        Files.createDirectories(directory);
+        leaderboard = new LeaderboardFile(leaderboardPath);
+        //Import into an empty file, including one whose import was cut short, since nothing counts until it is synced
+        if(leaderboard.isEmpty()) importScores();
+        long included = leaderboard.getGeneration();
+        List<Pair<String, Integer>> scores = new ArrayList<>(leaderboard.getTop());
+
+        //Replay the journals written since the snapshot, oldest first
+        List<Long> generations = journalGenerations();
+        for(long journalGeneration : generations) {
+            if(journalGeneration <= included) continue;
+            journalled += readJournal(journalPath(journalGeneration), scores);
+        }
+
+        //Start a new journal, so a line torn by an earlier crash is never appended to
+        long latest = generations.isEmpty() ? included : Math.max(included, generations.get(generations.size() - 1));
+        generation = latest + 1;
+        journal = openJournal(generation);
+        logger.info("Loaded the best of {} scores from {}, and {} journalled", leaderboard.getCount(), directory,
+            journalled);
+        if(journalled >= COMPACT_AFTER) {
+            writer.execute(this::compact);
+        }
+        return scores;
+    }
+
+    /**
+     * Fill an empty leaderboard file from the text snapshot if there is one, or else from the scores the game started
+     * with. The snapshot is only deleted once the scores are synced, so an import cut short is run again next time.
+     * @throws IOException if the scores cannot be read or added
+     */
+    private void importScores() throws IOException {
+        List<Pair<String, Integer>> scores = new ArrayList<>();
+        long included = -1;
+        if(Files.exists(textSnapshot)) {
+            logger.info("Importing scores from {}", textSnapshot);
+            try (BufferedReader reader = Files.newBufferedReader(textSnapshot)) {
+                included = readSnapshot(reader, scores);
+            }
+        } else {
+            seed(scores);
+        }
+        leaderboard.add(scores, included);
+        Files.deleteIfExists(textSnapshot);
+    }
+
+    /**
+     * Start a new set of scores from the scores the game ships with, or from the old scores file if there is one
+     * @param scores the list to add the scores to
+     * @throws IOException if the scores cannot be read
+     */
+    private void seed(List<Pair<String, Integer>> scores) throws IOException {
+        if(Files.exists(LEGACY_SCORES)) {
+            logger.info("Importing scores from {}", LEGACY_SCORES);
+            try (BufferedReader reader = Files.newBufferedReader(LEGACY_SCORES)) {
+                read(reader, scores);
+            }
+            return;
+        }
+        InputStream stream = ScoreJournal.class.getResourceAsStream(DEFAULT_SCORES);
+        if(stream == null) return;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            read(reader, scores);
+        }
+    }
+
+    /**
+     * Read a snapshot
+     * @param reader the snapshot
+     * @param scores the list to add the scores to
+     * @return the last generation the snapshot includes
+     * @throws IOException if the snapshot cannot be read
+     */
+    private static long readSnapshot(BufferedReader reader, List<Pair<String, Integer>> scores) throws IOException {
+        String header = reader.readLine();
+        if(header == null) return -1;
+        if(!header.startsWith(HEADER)) {
+            //Not written by a journal, so it is a plain list of scores
+            Pair<String, Integer> score = parse(header);
+            if(score != null) scores.add(score);
+            read(reader, scores);
+            return -1;
+        }
+        read(reader, scores);
+        return Long.parseLong(header.substring(HEADER.length()).trim());
+    }
+
+    /**
+     * Read lines of scores, skipping any that cannot be parsed
+     * @param reader the lines
+     * @param scores the list to add the scores to
+     * @return the number of scores read
+     * @throws IOException if the lines cannot be read
+     */
+    private static int read(BufferedReader reader, List<Pair<String, Integer>> scores) throws IOException {
+        int read = 0;
+        String line;
+        while((line = reader.readLine()) != null) {
+            Pair<String, Integer> score = parse(line);
+            if(score == null) continue;
+            scores.add(score);
+            read++;
+        }
+        return read;
+    }
+
+    /**
+     * Read a journal. Only lines with their new line are read, since a line without one was torn by a crash.
+     * @param path the journal
+     * @param scores the list to add the scores to
+     * @return the number of scores read
+     * @throws IOException if the journal cannot be read
+     */
+    private static int readJournal(Path path, List<Pair<String, Integer>> scores) throws IOException {
+        String text = Files.readString(path);
+        int read = 0;
+        int start = 0;
+        int end;
+        while((end = text.indexOf('\n', start)) >= 0) {
+            Pair<String, Integer> score = parse(text.substring(start, end));
+            if(score != null) {
+                scores.add(score);
+                read++;
+            }
+            start = end + 1;
+        }
+        if(start < text.length()) logger.warn("Skipping torn score at the end of {}", path);
+        return read;
+    }
+
+    /**
+     * Parse a line of the form name: score
+     * @param line the line
+     * @return the score, or null if the line is empty or torn
+     */
+    private static Pair<String, Integer> parse(String line) {
+        int colon = line.lastIndexOf(':');
+        if(colon < 0) return null;
+        try {
+            return new Pair<>(line.substring(0, colon).trim(), Integer.parseInt(line.substring(colon + 1).trim()));
+        } catch (NumberFormatException e) {
+            logger.warn("Skipping unreadable score: {}", line);
+            return null;
+        }
+    }
+
+    /**
+     * Format a score as a line
+     * @param name the player's name
+     * @param score the score
+     * @return the line, ending in a new line
+     */
+    private static String format(String name, int score) {
+        //A new line in the name would split the score across two lines
+        return name.replace('\n', ' ').replace('\r', ' ') + ": " + score + "\n";
+    }
+
+    /**
+     * Find the journals in the directory
+     * @return their generations, oldest first
+     * @throws IOException if the directory cannot be listed
+     */
+    private List<Long> journalGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> journals = Files.newDirectoryStream(directory, "scores.*.journal")) {
+            for(Path path : journals) {
+                String name = path.getFileName().toString();
+                try {
+                    generations.add(Long.parseLong(name.substring("scores.".length(), name.length() - ".journal".length())));
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring {}", path);
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    /**
+     * Get the path of a journal
+     * @param generation the journal's generation
+     * @return the path
+     */
+    private Path journalPath(long generation) {
+        return directory.resolve("scores." + generation + ".journal");
+    }
+
+    /**
+     * Open a journal for appending, creating it if needed
+     * @param generation the journal's generation
+     * @return the open journal
+     * @throws IOException if it cannot be opened
+     */
+    private FileChannel openJournal(long generation) throws IOException {
+        return FileChannel.open(journalPath(generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Queue a score to be appended to the journal. Returns straight away; the score is written and synced shortly
+     * after on the writer thread, together with any others queued meanwhile.
+     * @param name the player's name
+     * @param score the score
+     */
+    public void append(String name, int score) {
+        pending.add(format(name, score));
+        if(flushQueued.compareAndSet(false, true)) {
+            writer.execute(this::flush);
+        }
+    }
+
+    /**
+     * Append every pending line to the journal with one write and one sync, then fold the journals into the
+     * snapshot if enough have built up
+     */
+    private void flush() {
+        flushQueued.set(false);
+        StringBuilder lines = new StringBuilder();
+        int count = 0;
+        String line;
+        while((line = pending.poll()) != null) {
+            lines.append(line);
+            count++;
+        }
+        if(count == 0) return;
+        try {
+            synchronized (this) {
+                if(journal == null) throw new IOException("The journal has not been loaded");
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while(buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+                journal.force(false);
+                journalled += count;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Unable to journal {} scores", count, e);
+            return;
+        }
+        if(journalled >= COMPACT_AFTER) compact();
+    }
+
+    /**
+     * Add every journal so far to the leaderboard file. New scores go to a new journal first, so they are kept safe
+     * while the old journals are added.
+     */
+    private void compact() {
+        long start = System.nanoTime();
+        long folded;
+        synchronized (this) {
+            try {
+                journal.close();
+                folded = generation;
+                generation++;
+                journal = openJournal(generation);
+                journalled = 0;
+            } catch (IOException e) {
+                logger.error("Unable to start a new journal", e);
+                return;
+            }
+        }
+        try {
+            //Read back every journal up to the one just closed that the leaderboard does not have yet
+            long included = leaderboard.getGeneration();
+            List<Pair<String, Integer>> scores = new ArrayList<>();
+            List<Long> journals = new ArrayList<>();
+            for(long journalGeneration : journalGenerations()) {
+                if(journalGeneration > folded) continue;
+                journals.add(journalGeneration);
+                if(journalGeneration <= included) continue;
+                readJournal(journalPath(journalGeneration), scores);
+            }
+            leaderboard.add(scores, folded);
+
+            //The leaderboard now includes these journals
+            for(long journalGeneration : journals) {
+                Files.deleteIfExists(journalPath(journalGeneration));
+            }
+            logger.info("Added {} scores to {} in {}ms", scores.size(), leaderboardPath,
+                (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            //The journals are only deleted once the leaderboard has them, so nothing is lost
+            logger.error("Unable to add scores to the leaderboard", e);
+        }
+    }
+
+    /**
+     * Write out every queued score, stop the writer thread and close the files
+     */
+    public void close() {
+        writer.execute(this::flush);
+        writer.shutdown();
+        try {
+            if(!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Timed out writing scores");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                if(journal != null) {
+                    //Nothing was recorded this session, so there is no need to keep its journal
+                    boolean empty = journal.size() == 0;
+                    journal.close();
+                    if(empty) Files.deleteIfExists(journalPath(generation));
+                }
+                if(leaderboard != null) leaderboard.close();
+            } catch (IOException e) {
+                logger.error("Unable to close the score journal", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package uk.ac.soton.comp1206.scores;
+
+import javafx.util.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the best local scores in memory for the whole session, so the game can ask for the score to beat on every
+ * score change without touching the disk.
+ *
+ * The scores are read from a ScoreJournal once in the background when the store is loaded. After that the top scores
+ * are kept in a TopScores, and an immutable copy sorted from best to worst is published whenever a new score is
+ * recorded, so any thread can read them without locking. Recording a score appends it to the journal without waiting
+ * for the disk.
+ */
+public class ScoreStore {
+
+    /**
+     * Logger for keeping track of events
+     */
+    private static final Logger logger = LogManager.getLogger(ScoreStore.class);
+
+    /**
+     * The number of scores kept, which is the number shown on the leaderboard
+     */
+    public static final int CAPACITY = 10;
+
+    /**
+     * The store of local scores
+     */
+    private static final ScoreStore local = new ScoreStore(new ScoreJournal(ScoreJournal.defaultDirectory()), CAPACITY);
+
+    /**
+     * Runs loads on their own daemon thread, away from the FX thread
+     */
+    private static final Executor loader = runnable -> {
+        Thread thread = new Thread(runnable, "Score Loader");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    /**
+     * The journal the scores are kept in
+     */
+    private final ScoreJournal journal;
+
+    /**
+     * The load of the scores file, or null if it has not been started
+     */
+    private CompletableFuture<Void> loaded;
+
+    /**
+     * The top scores, only used while holding the store's lock
+     */
+    private final TopScores top;
+
+    /**
+     * An immutable copy of the top scores, best first
+     */
+    private volatile List<Pair<String, Integer>> scores = List.of();
+
+    /**
+     * Create a new store
+     * @param journal the journal the scores are kept in
+     * @param capacity the most scores kept
+     */
+    public ScoreStore(ScoreJournal journal, int capacity) {
+        this.journal = journal;
+        this.top = new TopScores(capacity);
+    }
+
+    /**
+     * Get the store of local scores
+     * @return the local store
+     */
+    public static ScoreStore local() {
+        return local;
+    }
+
+    /**
+     * Start reading the scores in the background, if it has not been started already
+     * @return a future completed once the scores have been read
+     */
+    public synchronized CompletableFuture<Void> load() {
+        if(loaded == null) {
+            loaded = CompletableFuture.runAsync(this::read, loader);
+        }
+        return loaded;
+    }
+
+    /**
+     * Read the scores from the journal, keeping the best scores
+     */
+    private void read() {
+        long start = System.nanoTime();
+        List<Pair<String, Integer>> read = new ArrayList<>();
+        try {
+            read.addAll(journal.load());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Unable to read scores", e);
+        }
+        synchronized (this) {
+            for(Pair<String, Integer> score : read) {
+                top.add(score.getKey(), score.getValue());
+            }
+            scores = List.copyOf(top.getView());
+        }
+        logger.info("Loaded {} scores in {}ms", read.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Check whether the scores have finished loading
+     * @return true once the load has finished
+     */
+    public synchronized boolean isLoaded() {
+        return loaded != null && loaded.isDone();
+    }
+
+    /**
+     * Get the top scores held in memory. Never waits for the load, so it is safe on the FX thread.
+     * @return an unmodifiable list of the top scores, best first, empty until the load has finished
+     */
+    public List<Pair<String, Integer>> getScores() {
+        return scores;
+    }
+
+    /**
+     * Get the best score held in memory. Never waits for the load, so it is safe on the FX thread.
+     * @return the best score, or 0 if there are none or they have not loaded yet
+     */
+    public int getBest() {
+        List<Pair<String, Integer>> best = scores;
+        return best.isEmpty() ? 0 : best.get(0).getValue();
+    }
+
+    /**
+     * Check whether a score would make it into the top scores
+     * @param score the score
+     * @return true if the score would be kept
+     */
+    public boolean wouldRank(int score) {
+        load().join();
+        synchronized (this) {
+            return top.wouldRank(score);
+        }
+    }
+
+    /**
+     * Find where a score would be placed among the top scores. Equal scores keep their order, so a new score goes
+     * after any it ties with.
+     * @param score the score
+     * @return the position from 0 for the best, which is the capacity if it would not be kept
+     */
+    public int getRank(int score) {
+        load().join();
+        synchronized (this) {
+            return top.rank(score);
+        }
+    }
+
+    /**
+     * Record a new score, appending it to the journal and updating the top scores
+     * @param name the player's name
+     * @param score the score
+     */
+    public void record(String name, int score) {
+        load().join();
+        journal.append(name, score);
+        synchronized (this) {
+            if(top.add(name, score)) scores = List.copyOf(top.getView());
+        }
+    }
+
+    /**
+     * Write out every recorded score, for when the game is closing
+     */
+    public void close() {
+        journal.close();
+    }
+}
@@ -0,0 +1,179 @@
+package uk.ac.soton.comp1206.scores;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.util.Pair;
+
+import java.util.Arrays;
+
+/**
+ * A leaderboard keeping only the best scores, up to a fixed number, in order from best to worst.
+ *
+ * The scores are held in a primitive array, so finding where a score ranks is a binary search with no boxing, and
+ * adding one shifts at most the scores below it. A sorted view is kept up to date as scores are added, so a
+ * ScoresList can show it directly and only hears about the entries that changed.
+ *
+ * Equal scores keep the order they were added in. A leaderboard is not thread safe, and its view should only be
+ * changed on the FX thread once something is showing it.
+ */
+public class TopScores {
+
+    /**
+     * The most scores kept
+     */
+    private final int capacity;
+
+    /**
+     * The scores, best first
+     */
+    private final int[] scores;
+
+    /**
+     * The names, in the same order as the scores
+     */
+    private final String[] names;
+
+    /**
+     * The number of scores kept
+     */
+    private int size;
+
+    /**
+     * The sorted view of the scores
+     */
+    private final ObservableList<Pair<String, Integer>> view = FXCollections.observableArrayList();
+
+    /**
+     * The read only wrapper of the view handed out
+     */
+    private final ObservableList<Pair<String, Integer>> readOnlyView = FXCollections.unmodifiableObservableList(view);
+
+    /**
+     * Create a new empty leaderboard
+     * @param capacity the most scores kept
+     */
+    public TopScores(int capacity) {
+        this.capacity = capacity;
+        this.scores = new int[capacity];
+        this.names = new String[capacity];
+    }
+
+    /**
+     * Add a score, if it is good enough to be kept. The worst score drops off if the leaderboard is full.
+     * @param name the player's name
+     * @param score the score
+     * @return true if the score was kept
+     */
+    public boolean add(String name, int score) {
+        int rank = rank(score);
+        if(rank >= capacity) return false;
+        if(size == capacity) {
+            size--;
+            view.remove(size);
+        }
+        System.arraycopy(scores, rank, scores, rank + 1, size - rank);
+        System.arraycopy(names, rank, names, rank + 1, size - rank);
+        scores[rank] = score;
+        names[rank] = name;
+        size++;
+        view.add(rank, new Pair<>(name, score));
+        return true;
+    }
+
+    /**
+     * Find where a score would be placed. It goes after any scores it ties with.
+     * @param score the score
+     * @return the position from 0 for the best, which is the capacity if it would not be kept
+     */
+    public int rank(int score) {
+        int low = 0;
+        int high = size;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(scores[middle] >= score) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Check whether a score would be kept
+     * @param score the score
+     * @return true if there is room for it or it beats the worst score kept
+     */
+    public boolean wouldRank(int score) {
+        return size < capacity || score > scores[size - 1];
+    }
+
+    /**
+     * Remove every score
+     */
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        size = 0;
+        view.clear();
+    }
+
+    /**
+     * Get the best score
+     * @return the best score, or 0 if there are none
+     */
+    public int getBest() {
+        return size == 0 ? 0 : scores[0];
+    }
+
+    /**
+     * Get a score
+     * @param index the position, from 0 for the best
+     * @return the score
+     */
+    public int getScore(int index) {
+        return scores[checkIndex(index)];
+    }
+
+    /**
+     * Get the name of the player with a score
+     * @param index the position, from 0 for the best
+     * @return the name
+     */
+    public String getName(int index) {
+        return names[checkIndex(index)];
+    }
+
+    /**
+     * Check an index is within the scores kept
+     * @param index the index
+     * @return the index
+     */
+    private int checkIndex(int index) {
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return index;
+    }
+
+    /**
+     * Get the number of scores kept
+     * @return the number of scores
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the most scores kept
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get a read only view of the scores, best first, which changes as scores are added
+     * @return the view
+     */
+    public ObservableList<Pair<String, Integer>> getView() {
+        return readOnlyView;
+    }
+}
@@ -0,0 +1,42 @@
+package uk.ac.soton.comp1206.simulation;
+
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GameCore;
+
+import java.util.Random;
+
+/**
+ * A policy that scans the board from the top left and places the current piece in the first position it fits, trying
+ * each rotation in turn. It never swaps, and only times out when the piece fits nowhere.
+ */
+public class FirstFitPolicy implements PlacementPolicy {
+
+    /**
+     * Get the name of this policy
+     * @return name
+     */
+    @Override
+    public String getName() {
+        return "First fit";
+    }
+
+    /**
+     * Place the current piece in the first position it fits
+     * @param core the game to play
+     * @param random unused
+     * @return true if a piece was placed
+     */
+    @Override
+    public boolean play(GameCore core, Random random) {
+        Board board = core.getBoard();
+        for(var rotation = 0; rotation < 4; rotation++) {
+            for(var y = 0; y < board.getRows(); y++) {
+                for(var x = 0; x < board.getCols(); x++) {
+                    if(core.canPlace(x, y)) return core.place(x, y);
+                }
+            }
+            core.rotate(1);
+        }
+        return false;
+    }
+}
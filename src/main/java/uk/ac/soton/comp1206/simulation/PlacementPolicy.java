@@ -0,0 +1,29 @@
+package uk.ac.soton.comp1206.simulation;
+
+import uk.ac.soton.comp1206.game.GameCore;
+
+import java.util.Random;
+
+/**
+ * A Placement Policy plays a headless game in place of a player. Each turn it may rotate or swap the current piece and
+ * then either place it or give up, in which case the turn times out and a life is lost.
+ *
+ * Policies are shared between the games of a simulation running in parallel, so they must not keep any state of their
+ * own between calls.
+ */
+public interface PlacementPolicy {
+
+    /**
+     * Get the name of this policy, used in reports
+     * @return name
+     */
+    String getName();
+
+    /**
+     * Play one turn of a game
+     * @param core the game to play
+     * @param random a generator for any random choices, seeded per game
+     * @return true if a piece was placed, false to let the turn time out
+     */
+    boolean play(GameCore core, Random random);
+}
@@ -0,0 +1,55 @@
+package uk.ac.soton.comp1206.simulation;
+
+import uk.ac.soton.comp1206.game.Board;
+import uk.ac.soton.comp1206.game.GameCore;
+
+import java.util.Random;
+
+/**
+ * A policy that behaves like a careless player: it rotates or swaps the current piece at random and then tries a few
+ * random positions, timing out if none of them fit.
+ */
+public class RandomPolicy implements PlacementPolicy {
+
+    /**
+     * How many random positions are tried before the turn is allowed to time out
+     */
+    private final int attempts;
+
+    /**
+     * Create a new random policy
+     * @param attempts how many random positions to try each turn
+     */
+    public RandomPolicy(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * Get the name of this policy
+     * @return name
+     */
+    @Override
+    public String getName() {
+        return "Random (" + attempts + " attempts)";
+    }
+
+    /**
+     * Rotate or swap at random, then try a few random positions
+     * @param core the game to play
+     * @param random the generator for this game
+     * @return true if a piece was placed
+     */
+    @Override
+    public boolean play(GameCore core, Random random) {
+        Board board = core.getBoard();
+        int rotations = random.nextInt(4);
+        if(rotations > 0) core.rotate(rotations);
+        if(random.nextInt(8) == 0) core.swap();
+        for(var attempt = 0; attempt < attempts; attempt++) {
+            int x = random.nextInt(board.getCols());
+            int y = random.nextInt(board.getRows());
+            if(core.canPlace(x, y)) return core.place(x, y);
+        }
+        return false;
+    }
+}
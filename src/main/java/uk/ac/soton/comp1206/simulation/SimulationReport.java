@@ -0,0 +1,177 @@
+package uk.ac.soton.comp1206.simulation;
+
+import java.util.Arrays;
+
+/**
+ * The results of running a batch of headless games with one placement policy: throughput, the distribution of final
+ * scores and the number of games that finished on each level.
+ */
+public class SimulationReport {
+
+    /**
+     * The name of the policy the games were played with
+     */
+    private final String policy;
+
+    /**
+     * The final score of each game, sorted in ascending order
+     */
+    private final int[] scores;
+
+    /**
+     * The number of games that finished on each level, indexed by level
+     */
+    private final int[] levelCounts;
+
+    /**
+     * The total number of turns played across all games
+     */
+    private final long moves;
+
+    /**
+     * The number of games stopped at the move limit before running out of lives
+     */
+    private final int unfinished;
+
+    /**
+     * The shortest timer delay reached in any game, in milliseconds
+     */
+    private final int minTimerDelay;
+
+    /**
+     * The wall clock time taken to play every game, in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Create a new report
+     * @param policy the name of the policy the games were played with
+     * @param scores the final score of each game
+     * @param levels the final level of each game
+     * @param moves the total number of turns played
+     * @param unfinished the number of games stopped at the move limit
+     * @param minTimerDelay the shortest timer delay reached, in milliseconds
+     * @param elapsedNanos the time taken to play every game, in nanoseconds
+     */
+    public SimulationReport(String policy, int[] scores, int[] levels, long moves, int unfinished, int minTimerDelay,
+                            long elapsedNanos) {
+        this.policy = policy;
+        this.scores = scores.clone();
+        Arrays.sort(this.scores);
+        int maxLevel = 0;
+        for(int level : levels) maxLevel = Math.max(maxLevel, level);
+        this.levelCounts = new int[maxLevel + 1];
+        for(int level : levels) levelCounts[level]++;
+        this.moves = moves;
+        this.unfinished = unfinished;
+        this.minTimerDelay = minTimerDelay;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get the name of the policy the games were played with
+     * @return policy name
+     */
+    public String getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Get the number of games played
+     * @return number of games
+     */
+    public int getGames() {
+        return scores.length;
+    }
+
+    /**
+     * Get the total number of turns played across all games
+     * @return number of moves
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Get the number of games stopped at the move limit before running out of lives
+     * @return number of unfinished games
+     */
+    public int getUnfinished() {
+        return unfinished;
+    }
+
+    /**
+     * Get the shortest timer delay reached in any game
+     * @return delay in milliseconds
+     */
+    public int getMinTimerDelay() {
+        return minTimerDelay;
+    }
+
+    /**
+     * Get the number of games played per second of wall clock time
+     * @return games per second
+     */
+    public double getGamesPerSecond() {
+        return scores.length / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Get the number of turns played per second of wall clock time
+     * @return moves per second
+     */
+    public double getMovesPerSecond() {
+        return moves / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Get the mean final score
+     * @return mean score, or 0 if no games were played
+     */
+    public double getMeanScore() {
+        if(scores.length == 0) return 0;
+        long total = 0;
+        for(int score : scores) total += score;
+        return (double) total / scores.length;
+    }
+
+    /**
+     * Get a percentile of the final scores, using the nearest rank
+     * @param percentile the percentile, from 0 to 100
+     * @return the score at that percentile, or 0 if no games were played
+     */
+    public int getScorePercentile(double percentile) {
+        if(scores.length == 0) return 0;
+        int rank = (int) Math.ceil(percentile / 100 * scores.length);
+        return scores[Math.min(Math.max(rank - 1, 0), scores.length - 1)];
+    }
+
+    /**
+     * Get the number of games that finished on each level
+     * @return a copy of the counts, indexed by level
+     */
+    public int[] getLevelCounts() {
+        return levelCounts.clone();
+    }
+
+    /**
+     * Return a readable summary of this report
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%s: %d games, %d moves in %.2fs (%.0f games/s, %.0f moves/s)%n", policy,
+            getGames(), moves, elapsedNanos / 1e9, getGamesPerSecond(), getMovesPerSecond()));
+        builder.append(String.format("  score: mean %.1f, min %d, median %d, p90 %d, p99 %d, max %d%n", getMeanScore(),
+            getScorePercentile(0), getScorePercentile(50), getScorePercentile(90), getScorePercentile(99),
+            getScorePercentile(100)));
+        builder.append("  level reached:");
+        for(int level = 0; level < levelCounts.length; level++) {
+            if(levelCounts[level] > 0) builder.append(' ').append(level).append('=').append(levelCounts[level]);
+        }
+        builder.append(String.format("%n  shortest timer delay %dms, %d games stopped at the move limit", minTimerDelay,
+            unfinished));
+        return builder.toString();
+    }
+}
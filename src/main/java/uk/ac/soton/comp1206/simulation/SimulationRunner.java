@@ -0,0 +1,259 @@
+package uk.ac.soton.comp1206.simulation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.game.GameCore;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays batches of complete headless games in parallel on a fork-join pool, using the same GameCore rules as the real
+ * game, and reports how each placement policy did.
+ *
+ * Game i of a batch is seeded with seed + i, so a batch gives the same results however many threads run it, and any
+ * single game can be picked out and replayed.
+ */
+public class SimulationRunner {
+
+    /**
+     * Logger for keeping track of events
+     */
+    private static final Logger logger = LogManager.getLogger(SimulationRunner.class);
+
+    /**
+     * Batches of games smaller than this are played on one thread rather than split further
+     */
+    private static final int THRESHOLD = 16;
+
+    /**
+     * The number of columns on each board
+     */
+    private final int cols;
+
+    /**
+     * The number of rows on each board
+     */
+    private final int rows;
+
+    /**
+     * The most turns a game may last, so a policy that never loses cannot run forever
+     */
+    private final int maxMoves;
+
+    /**
+     * The pool the games are played on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a new runner playing on the common fork-join pool
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param maxMoves the most turns a game may last
+     */
+    public SimulationRunner(int cols, int rows, int maxMoves) {
+        this(cols, rows, maxMoves, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new runner playing on the given pool
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param maxMoves the most turns a game may last
+     * @param pool the pool to play the games on
+     */
+    public SimulationRunner(int cols, int rows, int maxMoves, ForkJoinPool pool) {
+        this.cols = cols;
+        this.rows = rows;
+        this.maxMoves = maxMoves;
+        this.pool = pool;
+    }
+
+    /**
+     * Play a batch of games with a policy and report the results
+     * @param policy the policy to play with
+     * @param games the number of games to play
+     * @param seed the seed of the first game
+     * @return the report
+     */
+    public SimulationReport run(PlacementPolicy policy, int games, long seed) {
+        logger.info("Simulating {} games with {}", games, policy.getName());
+        Batch batch = new Batch(policy, seed, games);
+        long start = System.nanoTime();
+        pool.invoke(batch);
+        long elapsed = System.nanoTime() - start;
+
+        long moves = 0;
+        int unfinished = 0;
+        int minTimerDelay = Integer.MAX_VALUE;
+        for(var game = 0; game < games; game++) {
+            moves += batch.moves[game];
+            if(batch.moves[game] >= maxMoves) unfinished++;
+            minTimerDelay = Math.min(minTimerDelay, batch.timerDelays[game]);
+        }
+        SimulationReport report = new SimulationReport(policy.getName(), batch.scores, batch.levels, moves, unfinished,
+            minTimerDelay, elapsed);
+        logger.info("Simulation finished\n{}", report);
+        return report;
+    }
+
+    /**
+     * Play a single game with a policy until it runs out of lives or reaches the move limit
+     * @param policy the policy to play with
+     * @param seed the seed of the game
+     * @return the game in its final state
+     */
+    public GameCore play(PlacementPolicy policy, long seed) {
+        GameCore core = createGame(seed);
+        playOut(core, policy, seed);
+        return core;
+    }
+
+    /**
+     * Create and start a new game for a simulation
+     * @param seed the seed of the game
+     * @return the started game
+     */
+    private GameCore createGame(long seed) {
+        GameCore core = new GameCore(cols, rows, seed);
+        //Simulated games are thrown away, so there is no need to keep their moves
+        core.setMoveLog(null);
+        core.start();
+        return core;
+    }
+
+    /**
+     * Play turns of a game with a policy until it runs out of lives or reaches the move limit
+     * @param core the game to play
+     * @param policy the policy to play with
+     * @param seed the seed of the game, used to seed the policy's generator
+     * @return the number of turns played
+     */
+    private int playOut(GameCore core, PlacementPolicy policy, long seed) {
+        Random random = new Random(~seed);
+        int moves = 0;
+        while(!core.isGameOver() && moves < maxMoves) {
+            if(!policy.play(core, random)) core.timeout();
+            moves++;
+        }
+        return moves;
+    }
+
+    /**
+     * A range of games in a batch, split in half until it is small enough to play on one thread. Each game writes
+     * its results to its own slot in the shared arrays, so no locking is needed.
+     */
+    private class Batch extends RecursiveAction {
+
+        /**
+         * The policy to play with
+         */
+        private final PlacementPolicy policy;
+
+        /**
+         * The seed of the first game in the whole batch
+         */
+        private final long seed;
+
+        /**
+         * The first game in this range
+         */
+        private final int from;
+
+        /**
+         * The game after the last one in this range
+         */
+        private final int to;
+
+        /**
+         * The final score of each game in the whole batch
+         */
+        private final int[] scores;
+
+        /**
+         * The final level of each game in the whole batch
+         */
+        private final int[] levels;
+
+        /**
+         * The number of turns each game in the whole batch lasted
+         */
+        private final int[] moves;
+
+        /**
+         * The final timer delay of each game in the whole batch
+         */
+        private final int[] timerDelays;
+
+        /**
+         * Create a new batch covering every game
+         * @param policy the policy to play with
+         * @param seed the seed of the first game
+         * @param games the number of games
+         */
+        Batch(PlacementPolicy policy, long seed, int games) {
+            this(policy, seed, 0, games, new int[games], new int[games], new int[games], new int[games]);
+        }
+
+        /**
+         * Create a new range of a batch sharing the batch's result arrays
+         * @param policy the policy to play with
+         * @param seed the seed of the first game in the whole batch
+         * @param from the first game in this range
+         * @param to the game after the last one in this range
+         * @param scores the final scores
+         * @param levels the final levels
+         * @param moves the number of turns
+         * @param timerDelays the final timer delays
+         */
+        private Batch(PlacementPolicy policy, long seed, int from, int to, int[] scores, int[] levels, int[] moves,
+                      int[] timerDelays) {
+            this.policy = policy;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.scores = scores;
+            this.levels = levels;
+            this.moves = moves;
+            this.timerDelays = timerDelays;
+        }
+
+        /**
+         * Play the games in this range, splitting it first if it is too large
+         */
+        @Override
+        protected void compute() {
+            if(to - from <= THRESHOLD) {
+                for(var game = from; game < to; game++) {
+                    GameCore core = createGame(seed + game);
+                    moves[game] = playOut(core, policy, seed + game);
+                    scores[game] = core.getScore();
+                    levels[game] = core.getLevel();
+                    timerDelays[game] = core.getTimerDelay();
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Batch(policy, seed, from, middle, scores, levels, moves, timerDelays),
+                new Batch(policy, seed, middle, to, scores, levels, moves, timerDelays));
+        }
+    }
+
+    /**
+     * Run the built in policies on a standard board and log their reports
+     * @param args optionally the number of games per policy, then the seed
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        SimulationRunner runner = new SimulationRunner(5, 5, 10000);
+        PlacementPolicy[] policies = { new RandomPolicy(1), new RandomPolicy(8), new FirstFitPolicy() };
+        for(PlacementPolicy policy : policies) {
+            //Run once untimed so the JIT has warmed up before the timed run
+            runner.run(policy, Math.min(games, 1000), seed);
+            runner.run(policy, games, seed);
+        }
+    }
+}
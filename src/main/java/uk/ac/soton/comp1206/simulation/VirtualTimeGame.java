@@ -0,0 +1,143 @@
+package uk.ac.soton.comp1206.simulation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.event.GameEventListener;
+import uk.ac.soton.comp1206.game.GameCore;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.PieceTimer;
+import uk.ac.soton.comp1206.timer.ManualClock;
+import uk.ac.soton.comp1206.timer.TimerWheel;
+
+import java.util.function.Consumer;
+
+/**
+ * A headless game timed in virtual time. The piece timer runs on a ManualClock, so minutes of play, including every
+ * timeout, life lost and the game over, pass in as long as it takes to compute them.
+ *
+ * The game uses the same PieceTimer as the real Game and re-arms it at the same points, once each move has finished,
+ * so the timeouts happen exactly when they would in real time. Everything runs on the calling thread, so a game with
+ * the same seed, moves and timings always plays out the same way.
+ */
+public class VirtualTimeGame implements GameEventListener {
+
+    /**
+     * Logger for keeping track of events
+     */
+    private static final Logger logger = LogManager.getLogger(VirtualTimeGame.class);
+
+    /**
+     * The virtual clock
+     */
+    private final ManualClock clock = new ManualClock();
+
+    /**
+     * The wheel driven by the virtual clock
+     */
+    private final TimerWheel timers = new TimerWheel(clock, TimerWheel.DEFAULT_TICK, TimerWheel.DEFAULT_BUCKETS);
+
+    /**
+     * The game
+     */
+    private final GameCore core;
+
+    /**
+     * The timer for each piece
+     */
+    private final PieceTimer timer;
+
+    /**
+     * Whether a new piece has come into play during the current move
+     */
+    private boolean newPiece = false;
+
+    /**
+     * Create a new game
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed the seed of the piece generator
+     */
+    public VirtualTimeGame(int cols, int rows, long seed) {
+        this.core = new GameCore(cols, rows, seed);
+        this.timer = new PieceTimer(timers, generation -> play(GameCore::timeout));
+        core.setListener(this);
+    }
+
+    /**
+     * Start the game and the timer for the first piece
+     */
+    public void start() {
+        play(GameCore::start);
+    }
+
+    /**
+     * Make a move, such as placing, rotating or swapping, then time the next piece if one came into play
+     * @param move the move, given the core to act on
+     */
+    public void play(Consumer<GameCore> move) {
+        move.accept(core);
+        //Like the Game, time the new piece at the level reached once the whole move has finished
+        if(newPiece) {
+            newPiece = false;
+            timer.arm(core.getLevel(), core.getPieceGeneration());
+        }
+    }
+
+    /**
+     * Let virtual time pass, running any timeouts that fall due
+     * @param millis the number of milliseconds to pass
+     */
+    public void advance(long millis) {
+        timers.advance(millis);
+    }
+
+    /**
+     * Let virtual time pass without any moves until the game is over
+     * @param limit the most virtual time to let pass, in milliseconds
+     * @return the virtual time that passed, in milliseconds
+     */
+    public long runUntilGameOver(long limit) {
+        long start = clock.millis();
+        while(!core.isGameOver() && clock.millis() - start < limit) {
+            advance(Math.min(TimerWheel.DEFAULT_TICK, limit - (clock.millis() - start)));
+        }
+        long elapsed = clock.millis() - start;
+        logger.info("Ran {}ms of virtual time, game over: {}", elapsed, core.isGameOver());
+        return elapsed;
+    }
+
+    /**
+     * Get the virtual time since the game was created
+     * @return milliseconds of virtual time
+     */
+    public long getElapsed() {
+        return clock.millis();
+    }
+
+    /**
+     * Get the game. Moves should be made through play() so the timer is kept in step.
+     * @return the game core
+     */
+    public GameCore getCore() {
+        return core;
+    }
+
+    /**
+     * Note that a new piece needs timing
+     * @param nextPiece the next piece to be played
+     * @param followingPiece the following piece afterwards
+     */
+    @Override
+    public void nextPiece(GamePiece nextPiece, GamePiece followingPiece) {
+        newPiece = true;
+    }
+
+    /**
+     * Stop the timer once the game is over, as the scene does for the real game
+     * @param lives the number of lives remaining
+     */
+    @Override
+    public void lifeLost(int lives) {
+        if(core.isGameOver()) timer.stop();
+    }
+}
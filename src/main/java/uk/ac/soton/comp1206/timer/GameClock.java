@@ -0,0 +1,30 @@
+package uk.ac.soton.comp1206.timer;
+
+/**
+ * A source of time for the TimerWheel. The real game uses the system clock, but any other clock can be plugged in: an
+ * accelerated one that runs faster than real time, or a ManualClock that only moves when told to.
+ */
+public interface GameClock {
+
+    /**
+     * The system's monotonic clock
+     */
+    GameClock SYSTEM = () -> System.nanoTime() / 1_000_000;
+
+    /**
+     * Create a clock that runs faster than real time, for watching a game play out quickly
+     * @param factor how many times faster than the system clock to run
+     * @return the new clock, starting at the system clock's current time
+     */
+    static GameClock accelerated(double factor) {
+        if(factor <= 0) throw new IllegalArgumentException("Clock speed must be positive, got " + factor);
+        long start = SYSTEM.millis();
+        return () -> start + (long) ((SYSTEM.millis() - start) * factor);
+    }
+
+    /**
+     * Get the current time. Only differences between times matter, so it need not be related to the time of day.
+     * @return the current time in milliseconds
+     */
+    long millis();
+}
@@ -0,0 +1,49 @@
+package uk.ac.soton.comp1206.timer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock that only moves when told to. A TimerWheel on a ManualClock has no thread of its own: calling its advance()
+ * method moves the clock on and runs every timeout that falls due along the way, on the calling thread. A game can
+ * then be played through minutes of timeouts in milliseconds, in exactly the same order as in real time.
+ */
+public class ManualClock implements GameClock {
+
+    /**
+     * The current time in milliseconds
+     */
+    private final AtomicLong now;
+
+    /**
+     * Create a new clock starting at 0
+     */
+    public ManualClock() {
+        this(0);
+    }
+
+    /**
+     * Create a new clock starting at the given time
+     * @param start the starting time in milliseconds
+     */
+    public ManualClock(long start) {
+        this.now = new AtomicLong(start);
+    }
+
+    /**
+     * Get the current time
+     * @return the current time in milliseconds
+     */
+    @Override
+    public long millis() {
+        return now.get();
+    }
+
+    /**
+     * Move the clock forward. Timeouts are not run; use TimerWheel.advance() for that.
+     * @param millis the number of milliseconds to move forward by
+     */
+    public void advance(long millis) {
+        if(millis < 0) throw new IllegalArgumentException("Cannot move a clock backwards by " + millis + "ms");
+        now.addAndGet(millis);
+    }
+}
@@ -0,0 +1,351 @@
+package uk.ac.soton.comp1206.timer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A hashed-wheel timer: one thread serving any number of timeouts, so many games can run at once without each
+ * needing a thread of its own.
+ *
+ * Time is cut into ticks, and each timeout sits in the bucket of the tick its deadline falls in. Every tick the
+ * thread looks at one bucket and runs the timeouts that are due. Timeouts further away than one turn of the wheel
+ * simply stay in their bucket until their turn comes round.
+ *
+ * A Timeout can be re-armed after it has been scheduled. Moving the deadline later costs a single write, because a
+ * timeout found in a bucket before its deadline is moved on rather than run. Tasks run on the timer's thread and must
+ * be short, typically just queueing work elsewhere.
+ */
+public class TimerWheel {
+
+    /**
+     * Logger for keeping track of events
+     */
+    private static final Logger logger = LogManager.getLogger(TimerWheel.class);
+
+    /**
+     * The length of a tick in milliseconds
+     */
+    public static final int DEFAULT_TICK = 10;
+
+    /**
+     * The number of buckets in the wheel, a power of two
+     */
+    public static final int DEFAULT_BUCKETS = 512;
+
+    /**
+     * The wheel shared by the whole application, created when first needed
+     */
+    private static TimerWheel shared;
+
+    /**
+     * The clock deadlines are measured on
+     */
+    private final GameClock clock;
+
+    /**
+     * The length of a tick in milliseconds
+     */
+    private final int tick;
+
+    /**
+     * The buckets, each holding the timeouts whose deadline falls in its ticks. Only touched on the timer's thread.
+     */
+    private final ArrayList<ArrayList<Timeout>> buckets;
+
+    /**
+     * Mask to turn a tick number into a bucket index
+     */
+    private final int mask;
+
+    /**
+     * Timeouts scheduled or re-armed since the last tick, waiting to be put into the wheel
+     */
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The last tick whose bucket has been processed
+     */
+    private long lastTick;
+
+    /**
+     * The thread driving the wheel, or null if it has not been started
+     */
+    private Thread thread;
+
+    /**
+     * Whether the wheel has been shut down
+     */
+    private volatile boolean shutdown = false;
+
+    /**
+     * Create a new wheel with the default tick and size on the system clock
+     */
+    public TimerWheel() {
+        this(GameClock.SYSTEM, DEFAULT_TICK, DEFAULT_BUCKETS);
+    }
+
+    /**
+     * Create a new wheel. Its thread is not started until start() is called.
+     * @param clock the clock to measure deadlines on
+     * @param tick the length of a tick in milliseconds
+     * @param buckets the number of buckets, rounded up to a power of two
+     */
+    public TimerWheel(GameClock clock, int tick, int buckets) {
+        if(tick < 1 || buckets < 1) {
+            throw new IllegalArgumentException("Timer wheel needs a positive tick and size, got " + tick + "ms x " + buckets);
+        }
+        this.clock = clock;
+        this.tick = tick;
+        int size = buckets == 1 ? 1 : Integer.highestOneBit(buckets - 1) << 1;
+        this.buckets = new ArrayList<>(size);
+        for(var i = 0; i < size; i++) {
+            this.buckets.add(new ArrayList<>());
+        }
+        this.mask = size - 1;
+        this.lastTick = clock.millis() / tick;
+    }
+
+    /**
+     * Get the wheel shared by the whole application, starting it the first time
+     * @return the shared wheel
+     */
+    public static synchronized TimerWheel shared() {
+        if(shared == null || shared.isShutdown()) {
+            shared = new TimerWheel();
+            shared.start();
+        }
+        return shared;
+    }
+
+    /**
+     * Shut down the shared wheel, if it has been created
+     */
+    public static synchronized void shutdownShared() {
+        if(shared != null) shared.shutdown();
+    }
+
+    /**
+     * Start the thread that drives the wheel
+     */
+    public synchronized void start() {
+        if(thread != null) return;
+        logger.info("Starting timer wheel with {}ms ticks and {} buckets", tick, buckets.size());
+        thread = new Thread(this::run, "Timer Wheel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the wheel. Timeouts that have not yet run never will.
+     */
+    public synchronized void shutdown() {
+        logger.info("Shutting down timer wheel");
+        shutdown = true;
+        if(thread != null) thread.interrupt();
+    }
+
+    /**
+     * Check whether the wheel has been shut down
+     * @return true once shutdown() has been called
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Get the clock deadlines are measured on
+     * @return the clock
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Schedule a task to run once after a delay. Safe to call from any thread.
+     * @param task the task, run on the timer's thread
+     * @param delay the delay in milliseconds
+     * @return the timeout, which can be re-armed or cancelled
+     */
+    public Timeout schedule(Runnable task, long delay) {
+        Timeout timeout = new Timeout(task);
+        timeout.rearm(delay);
+        return timeout;
+    }
+
+    /**
+     * Tick until the wheel is shut down
+     */
+    private void run() {
+        while(!shutdown) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(tick);
+            } catch (InterruptedException e) {
+                break;
+            }
+            expire();
+        }
+        logger.info("Timer wheel stopped");
+    }
+
+    /**
+     * Move a ManualClock forward one tick at a time, running the timeouts that fall due at each step on the calling
+     * thread. Timeouts armed by those tasks run too if they fall due before the end, so the order of events is the
+     * same as in real time.
+     * @param millis the number of milliseconds to move forward by
+     * @throws IllegalStateException if the wheel is not on a ManualClock or has its own thread
+     */
+    public void advance(long millis) {
+        if(!(clock instanceof ManualClock manual) || thread != null) {
+            throw new IllegalStateException("Only a wheel on a ManualClock without its own thread can be advanced");
+        }
+        for(long left = millis; left > 0; left -= tick) {
+            manual.advance(Math.min(tick, left));
+            expire();
+        }
+    }
+
+    /**
+     * Run every timeout that is due by the clock's current time. Called on each tick by the wheel's thread, and must
+     * only be called from one thread at a time.
+     */
+    public void expire() {
+        long now = clock.millis();
+        Timeout timeout;
+        while((timeout = pending.poll()) != null) {
+            //Clear the flag before placing, so a re-arm from now on is either seen here or queued again
+            timeout.queued.set(false);
+            place(timeout);
+        }
+        long currentTick = now / tick;
+        //Look at each bucket at most once, even if the clock jumped several turns
+        long firstTick = Math.max(lastTick + 1, currentTick - mask);
+        for(long t = firstTick; t <= currentTick; t++) {
+            //Timeouts moved on from this bucket must go into a later one
+            lastTick = t;
+            ArrayList<Timeout> bucket = buckets.get((int) (t & mask));
+            if(bucket.isEmpty()) continue;
+            //Swap in an empty bucket, since timeouts not yet due may go straight back into this one
+            buckets.set((int) (t & mask), new ArrayList<>());
+            for(Timeout due : bucket) {
+                due.bucket = -1;
+                long deadline = due.deadline.get();
+                if(deadline == Timeout.IDLE) continue;
+                //Not yet due, or re-armed while being looked at, so move it on
+                if(deadline > now || !due.deadline.compareAndSet(deadline, Timeout.IDLE)) {
+                    place(due);
+                    continue;
+                }
+                try {
+                    due.task.run();
+                } catch (RuntimeException e) {
+                    logger.error("Timer task failed", e);
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, currentTick);
+    }
+
+    /**
+     * Put a timeout into the bucket for its deadline, taking it out of any bucket it is already in
+     * @param timeout the timeout
+     */
+    private void place(Timeout timeout) {
+        long deadline = timeout.deadline.get();
+        if(deadline == Timeout.IDLE) {
+            if(timeout.bucket >= 0) buckets.get(timeout.bucket).remove(timeout);
+            timeout.bucket = -1;
+            return;
+        }
+        //Never put a timeout behind the tick being processed, or it would wait a whole turn
+        long deadlineTick = Math.max(deadline / tick, lastTick + 1);
+        int index = (int) (deadlineTick & mask);
+        if(timeout.bucket == index) return;
+        if(timeout.bucket >= 0) buckets.get(timeout.bucket).remove(timeout);
+        buckets.get(index).add(timeout);
+        timeout.bucket = index;
+    }
+
+    /**
+     * A task scheduled on the wheel
+     */
+    public class Timeout {
+
+        /**
+         * Deadline of a timeout that has run, been cancelled or never been armed
+         */
+        private static final long IDLE = Long.MIN_VALUE;
+
+        /**
+         * The task to run
+         */
+        private final Runnable task;
+
+        /**
+         * The time the task is due on the wheel's clock, or IDLE. The timer's thread only runs the task if it can
+         * swap the deadline it saw for IDLE, so a re-arm racing with the task running is never lost.
+         */
+        private final AtomicLong deadline = new AtomicLong(IDLE);
+
+        /**
+         * Whether the timeout is waiting in the pending queue
+         */
+        private final AtomicBoolean queued = new AtomicBoolean();
+
+        /**
+         * The bucket the timeout is in, or -1. Only touched on the timer's thread.
+         */
+        private int bucket = -1;
+
+        /**
+         * Create a new timeout
+         * @param task the task to run
+         */
+        private Timeout(Runnable task) {
+            this.task = task;
+        }
+
+        /**
+         * Set the timeout to run its task after a delay from now, whether or not it has already run or been
+         * cancelled. Safe to call from any thread.
+         * @param delay the delay in milliseconds
+         */
+        public void rearm(long delay) {
+            long next = clock.millis() + Math.max(0, delay);
+            long previous = deadline.getAndSet(next);
+            //A timeout still in the wheel that moves later needs no more work: it is moved on when its old bucket
+            //comes round
+            if(previous != IDLE && next >= previous) return;
+            if(!queued.getAndSet(true)) pending.offer(this);
+        }
+
+        /**
+         * Stop the task from running, unless it already has. Safe to call from any thread.
+         */
+        public void cancel() {
+            deadline.set(IDLE);
+        }
+
+        /**
+         * Check whether the timeout is waiting to run
+         * @return true if armed and neither run nor cancelled since
+         */
+        public boolean isPending() {
+            return deadline.get() != IDLE;
+        }
+
+        /**
+         * Get the time left until the task is due
+         * @return milliseconds remaining, 0 if already due or not armed
+         */
+        public long getRemaining() {
+            long due = deadline.get();
+            return due == IDLE ? 0 : Math.max(0, due - clock.millis());
+        }
+    }
+}
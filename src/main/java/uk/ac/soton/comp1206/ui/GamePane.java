@@ -1,5 +1,7 @@
 package uk.ac.soton.comp1206.ui;
 
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
 import javafx.geometry.Pos;
 import javafx.scene.layout.*;
 import javafx.scene.transform.Scale;
@@ -26,6 +28,7 @@ public class GamePane extends StackPane {
     private final int width;
     private final int height;
     private double scalar = 1;
+    private final ReadOnlyDoubleWrapper scalarProperty = new ReadOnlyDoubleWrapper(1);
     private final boolean autoScale = true;
 
     /**
@@ -48,6 +51,16 @@ public class GamePane extends StackPane {
      */
     protected void setScalar(double scalar) {
         this.scalar = scalar;
+        scalarProperty.set(scalar);
+    }
+
+    /**
+     * The scalar being used by this draw pane, for anything drawn at screen resolution that must be redrawn when the
+     * window is resized
+     * @return the scalar property
+     */
+    public ReadOnlyDoubleProperty scalarProperty() {
+        return scalarProperty.getReadOnlyProperty();
     }
 
     /**
@@ -5,7 +5,6 @@ import javafx.scene.Scene;
 import javafx.scene.layout.Pane;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,7 +12,9 @@ import uk.ac.soton.comp1206.App;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.network.Communicator;
 import uk.ac.soton.comp1206.scene.*;
+import uk.ac.soton.comp1206.scores.ScoreStore;
 import uk.ac.soton.comp1206.utility.Multimedia;
+import uk.ac.soton.comp1206.utility.Assets;
 
 /**
  * The GameWindow is the single window for the game where everything takes place. To move between screens in the game,
@@ -45,6 +46,7 @@ public class GameWindow {
      * @param height height
      */
     public GameWindow(Stage stage, int width, int height) {
+        long start = System.nanoTime();
         this.width = width;
         this.height = height;
 
@@ -64,6 +66,7 @@ public class GameWindow {
 
         //Go to menu
         startMenu();
+        logger.info("Reached the menu in {}ms", (System.nanoTime() - start) / 1_000_000);
     }
 
     /**
@@ -72,10 +75,12 @@ public class GameWindow {
     private void setupResources() {
         logger.info("Loading resources");
 
-        //We need to load fonts here due to the Font loader bug with spaces in URLs in the CSS files
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Regular.ttf"),32);
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Bold.ttf"),32);
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-ExtraBold.ttf"),32);
+        //Load everything in the background. We need the fonts before the first scene due to the Font loader bug with
+        //spaces in URLs in the CSS files, but images, music and sounds carry on loading while the menu is shown.
+        Assets.preload().join();
+
+        //Read the local scores once for the whole session
+        ScoreStore.local().load();
     }
 
     /**
@@ -86,10 +91,30 @@ public class GameWindow {
     }
 
     /**
-     * Display the single player challenge
+     * Display the single player challenge, on a board of the size given by the tetrecs.board system property
+     * (e.g. -Dtetrecs.board=10x10) or the standard 5x5 board otherwise
      */
     public void startChallenge() {
-        loadScene(new ChallengeScene(this));
+        String size = System.getProperty("tetrecs.board");
+        if(size != null) {
+            try {
+                String[] dimensions = size.toLowerCase().split("x");
+                startChallenge(Integer.parseInt(dimensions[0].trim()), Integer.parseInt(dimensions[1].trim()));
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Invalid board size {}, using the standard board: {}", size, e.getMessage());
+            }
+        }
+        startChallenge(ChallengeScene.DEFAULT_SIZE, ChallengeScene.DEFAULT_SIZE);
+    }
+
+    /**
+     * Display the single player challenge on a board of the given size
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public void startChallenge(int cols, int rows) {
+        loadScene(new ChallengeScene(this, cols, rows));
     }
 
     /**
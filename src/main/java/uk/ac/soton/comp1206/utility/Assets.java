@@ -0,0 +1,168 @@
+package uk.ac.soton.comp1206.utility;
+
+import javafx.scene.image.Image;
+import javafx.scene.media.Media;
+import javafx.scene.text.Font;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the game's fonts, images, music and sound effects in the background at startup and keeps them for the rest
+ * of the game. Scenes fetch decoded images and music from here instead of decoding them each time they are built.
+ *
+ * Each kind of asset is loaded as its own phase, with the phases running in parallel and each one timed and logged.
+ * Fetching an asset that has not been loaded yet loads it there and then, or waits for the load already under way.
+ */
+public class Assets {
+
+    /**
+     * Logger for keeping track of events
+     */
+    private static final Logger logger = LogManager.getLogger(Assets.class);
+
+    /**
+     * The fonts, loaded before the first scene is styled
+     */
+    public static final String[] FONTS = {
+        "/style/Orbitron-Regular.ttf", "/style/Orbitron-Bold.ttf", "/style/Orbitron-ExtraBold.ttf"
+    };
+
+    /**
+     * The images shown by scenes
+     */
+    public static final String[] IMAGES = {
+        "/images/TetrECS.png", "/images/Instructions.png", "/images/ECSGames.png"
+    };
+
+    /**
+     * The music tracks
+     */
+    public static final String[] MUSIC = {
+        "/music/menu.mp3", "/music/end.wav"
+    };
+
+    /**
+     * The decoded images, by resource path
+     */
+    private static final ConcurrentHashMap<String, Image> images = new ConcurrentHashMap<>();
+
+    /**
+     * The music, by resource path
+     */
+    private static final ConcurrentHashMap<String, Media> music = new ConcurrentHashMap<>();
+
+    /**
+     * Start loading every asset in the background
+     * @return a future completed once the fonts have loaded, which must happen before the first scene is shown. The
+     * other phases carry on in the background.
+     */
+    public static CompletableFuture<Void> preload() {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "Asset Loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<Void> fonts = phase("fonts", pool, () -> {
+            for(String font : FONTS) {
+                loadFont(font);
+            }
+        });
+        CompletableFuture<Void> others = CompletableFuture.allOf(
+            phase("images", pool, () -> {
+                for(String image : IMAGES) {
+                    getImage(image);
+                }
+            }),
+            phase("music", pool, () -> {
+                for(String track : MUSIC) {
+                    getMusic(track);
+                }
+            }),
+            phase("sound effects", pool, SoundBank::preload));
+        CompletableFuture.allOf(fonts, others).whenComplete((result, error) -> {
+            pool.shutdown();
+            logger.info("Loaded all assets in {}ms", (System.nanoTime() - start) / 1_000_000);
+        });
+        return fonts;
+    }
+
+    /**
+     * Run one timed loading phase
+     * @param name the name of the phase, for the log
+     * @param pool the pool to run on
+     * @param loader loads the phase's assets
+     * @return a future completed when the phase is done, even if it failed
+     */
+    private static CompletableFuture<Void> phase(String name, ExecutorService pool, Runnable loader) {
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                loader.run();
+                logger.info("Loaded {} in {}ms", name, (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                //A missing asset should not stop the game, anything not loaded here is loaded when first used
+                logger.error("Unable to load {}", name, e);
+            }
+        }, pool);
+    }
+
+    /**
+     * Load a font so that the stylesheets can use it
+     * @param path the resource path of the font
+     */
+    private static void loadFont(String path) {
+        try(InputStream stream = Assets.class.getResourceAsStream(path)) {
+            if(stream == null) {
+                logger.warn("No font at {}", path);
+                return;
+            }
+            Font.loadFont(stream, 32);
+        } catch (IOException e) {
+            logger.error("Unable to load font {}", path, e);
+        }
+    }
+
+    /**
+     * Get a decoded image, decoding it the first time
+     * @param path the resource path of the image
+     * @return the image
+     * @throws IllegalArgumentException if there is no such image
+     */
+    public static Image getImage(String path) {
+        return images.computeIfAbsent(path, key -> new Image(resource(key).toExternalForm()));
+    }
+
+    /**
+     * Get a music track, loading it the first time
+     * @param path the resource path of the track
+     * @return the track, or null if there is no such track
+     */
+    public static Media getMusic(String path) {
+        if(Assets.class.getResource(path) == null) {
+            logger.warn("No music at {}", path);
+            return null;
+        }
+        return music.computeIfAbsent(path, key -> new Media(resource(key).toExternalForm()));
+    }
+
+    /**
+     * Find a resource
+     * @param path the resource path
+     * @return the location of the resource
+     * @throws IllegalArgumentException if there is no such resource
+     */
+    private static URL resource(String path) {
+        URL url = Assets.class.getResource(path);
+        if(url == null) throw new IllegalArgumentException("No resource at " + path);
+        return url;
+    }
+}
@@ -10,22 +10,18 @@ import org.apache.logging.log4j.Logger;
 public class Multimedia {
     private static final Logger logger = LogManager.getLogger(uk.ac.soton.comp1206.utility.Multimedia.class);
     private static final BooleanProperty audioEnabledProperty = new SimpleBooleanProperty(true);
-    private static MediaPlayer audioPlayer;
     private static MediaPlayer backgroundMusicPlayer;
     /**
-     * Play an audio file
+     * Play a sound effect from the preloaded SoundBank
      * @param file filename to play from resources
      */
     public static void playAudio(String file) {
 
         if (!getAudioEnabled()) return;
-        String toPlay = Multimedia.class.getResource("/sounds/" + file).toExternalForm();
-        logger.info("Playing music: " + toPlay.substring(toPlay.lastIndexOf("/") + 1));
+        logger.info("Playing sound: " + file);
 
         try {
-            Media play = new Media(toPlay);
-            audioPlayer = new MediaPlayer(play);
-            audioPlayer.play();
+            SoundBank.play(file);
         } catch (Exception e) {
             setAudioEnabled(false);
             e.printStackTrace();
@@ -35,11 +31,11 @@ public class Multimedia {
 
     public static void playBackgroundMusic(String file) {
         if (!getAudioEnabled()) return;
-        String toPlay = Multimedia.class.getResource("/music/" + file).toExternalForm();
-        logger.info("Playing music: " + toPlay.substring(toPlay.lastIndexOf("/") + 1));
+        logger.info("Playing music: " + file);
 
         try {
-            Media play = new Media(toPlay);
+            Media play = Assets.getMusic("/music/" + file);
+            if (play == null) return;
             backgroundMusicPlayer = new MediaPlayer(play);
             backgroundMusicPlayer.setCycleCount(MediaPlayer.INDEFINITE);
             backgroundMusicPlayer.play();
@@ -65,16 +61,20 @@ public class Multimedia {
     }
 
     public static void stopMusic() {
-        backgroundMusicPlayer.stop();
+        if (backgroundMusicPlayer != null) backgroundMusicPlayer.stop();
     }
 
     public static void playFileOnce(String file, String secondFile) {
         if (!getAudioEnabled()) return;
-        String toPlay = Multimedia.class.getResource(file).toExternalForm();
-        logger.info("Playing music: " + toPlay.substring(toPlay.lastIndexOf("/") + 1));
+        logger.info("Playing music: " + file);
 
         try {
-            Media play = new Media(toPlay);
+            Media play = Assets.getMusic(file);
+            //Without the first track, go straight on to the second
+            if (play == null) {
+                playBackgroundMusic(secondFile);
+                return;
+            }
             backgroundMusicPlayer = new MediaPlayer(play);
             backgroundMusicPlayer.play();
             backgroundMusicPlayer.setOnEndOfMedia(() -> {
@@ -0,0 +1,193 @@
+package uk.ac.soton.comp1206.utility;
+
+import javafx.scene.media.AudioClip;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bank of preloaded sound effects. Every file in /sounds is decoded once into an AudioClip, and played by its file
+ * name with no further loading, so effects start straight away and playing one allocates nothing.
+ *
+ * The same effect can overlap itself a few times. Once it has been started VOICES times in quick succession, further
+ * plays are skipped until the oldest of those has had time to finish.
+ */
+public class SoundBank {
+
+    /**
+     * Logger for keeping track of events
+     */
+    private static final Logger logger = LogManager.getLogger(SoundBank.class);
+
+    /**
+     * The resource directory holding the sound effects
+     */
+    private static final String DIRECTORY = "/sounds";
+
+    /**
+     * The most times one sound can play over itself at once
+     */
+    public static final int VOICES = 4;
+
+    /**
+     * How long a play is counted as overlapping later ones, about the length of the longest short effect
+     */
+    private static final long OVERLAP_MILLIS = 500;
+
+    /**
+     * The loaded sounds, by file name
+     */
+    private static final ConcurrentHashMap<String, Sound> sounds = new ConcurrentHashMap<>();
+
+    /**
+     * Load every sound effect in /sounds that has not been loaded yet
+     */
+    public static void preload() {
+        long start = System.nanoTime();
+        for(String file : list()) {
+            get(file);
+        }
+        logger.info("Loaded {} sound effects in {}ms", sounds.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * List the sound effects in /sounds, whether it is a directory, inside a jar or inside a runtime image
+     * @return the file names, or none if the directory cannot be read
+     */
+    private static List<String> list() {
+        URL url = SoundBank.class.getResource(DIRECTORY);
+        if(url == null) {
+            logger.warn("No sound effects directory {}", DIRECTORY);
+            return List.of();
+        }
+        try {
+            URI uri = url.toURI();
+            if("jar".equals(uri.getScheme())) {
+                try(FileSystem jar = FileSystems.newFileSystem(uri, Map.of())) {
+                    return list(jar.provider().getPath(uri));
+                }
+            }
+            return list(Path.of(uri));
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            //Anything not preloaded is still loaded when first played
+            logger.error("Unable to list the sound effects in {}", DIRECTORY, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * List the files in a directory
+     * @param directory the directory
+     * @return the file names
+     * @throws IOException if the directory cannot be read
+     */
+    private static List<String> list(Path directory) throws IOException {
+        List<String> files = new ArrayList<>();
+        try(DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for(Path entry : entries) {
+                if(Files.isRegularFile(entry)) files.add(entry.getFileName().toString());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Play a sound effect, loading it first if it has not been preloaded
+     * @param file the file name of the sound in /sounds
+     * @return true if the sound was played, false if there is no such sound or it is already overlapping itself
+     */
+    public static boolean play(String file) {
+        Sound sound = get(file);
+        return sound != null && sound.play();
+    }
+
+    /**
+     * Stop every sound effect
+     */
+    public static void stopAll() {
+        for(Sound sound : sounds.values()) {
+            sound.stop();
+        }
+    }
+
+    /**
+     * Get a sound, loading it the first time
+     * @param file the file name of the sound in /sounds
+     * @return the sound, or null if there is no such file
+     */
+    private static Sound get(String file) {
+        Sound sound = sounds.get(file);
+        if(sound != null) return sound;
+        URL url = SoundBank.class.getResource("/sounds/" + file);
+        if(url == null) {
+            logger.warn("No sound effect called {}", file);
+            return null;
+        }
+        return sounds.computeIfAbsent(file, name -> new Sound(url.toExternalForm()));
+    }
+
+    /**
+     * One sound effect. JavaFX can play a clip over itself, so a single clip serves every play and the overlap is
+     * only limited by counting recent starts.
+     */
+    private static class Sound {
+
+        /**
+         * The clip, decoded once
+         */
+        private final AudioClip clip;
+
+        /**
+         * When each of the most recent plays started, in milliseconds, oldest first from next
+         */
+        private final long[] started = new long[VOICES];
+
+        /**
+         * The slot in started of the oldest recent play, which the next play replaces
+         */
+        private int next = 0;
+
+        /**
+         * Decode a sound
+         * @param url the location of the sound
+         */
+        private Sound(String url) {
+            clip = new AudioClip(url);
+        }
+
+        /**
+         * Play the sound, unless it is already playing over itself as many times as allowed
+         * @return true if the sound was played
+         */
+        private synchronized boolean play() {
+            long now = System.currentTimeMillis();
+            if(started[next] != 0 && now - started[next] < OVERLAP_MILLIS) return false;
+            started[next] = now;
+            next = (next + 1) % VOICES;
+            clip.play();
+            return true;
+        }
+
+        /**
+         * Stop every play of the sound
+         */
+        private synchronized void stop() {
+            clip.stop();
+            Arrays.fill(started, 0);
+        }
+    }
+}